@@ -0,0 +1,112 @@
+package assecor.assessment.backend.benchmark;
+
+import assecor.assessment.backend.cache.ColumnarPersonSnapshot;
+import assecor.assessment.backend.cache.PersonSnapshot;
+import assecor.assessment.backend.cache.RowPersonSnapshot;
+import assecor.assessment.backend.config.PersonProperties;
+import assecor.assessment.backend.dto.PersonResponse;
+import assecor.assessment.backend.model.Color;
+import assecor.assessment.backend.model.Person;
+import assecor.assessment.backend.util.PersonFilter;
+import assecor.assessment.backend.util.ZipcodeRange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups against the in-memory CSV snapshot that backs {@code /persons/{id}}, {@code /persons/color/{color}},
+ * {@code /persons/zip}, {@code /persons/filter} and {@code /persons/color-counts}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PersonLookupBenchmark {
+    private static final int ID_MASK = 1023;
+    private static final Color[] COLORS = Color.values();
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    private int rows;
+
+    @Param({"ROWS", "COLUMNS"})
+    private PersonProperties.SnapshotLayout layout;
+
+    private PersonSnapshot snapshot;
+    private final int[] ids = new int[ID_MASK + 1];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void buildSnapshot() {
+        List<Person> persons = SyntheticPersons.generate(rows);
+        snapshot = layout == PersonProperties.SnapshotLayout.COLUMNS
+                ? new ColumnarPersonSnapshot(1, persons)
+                : new RowPersonSnapshot(1, persons);
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = random.nextInt(1, rows + 1);
+        }
+    }
+
+    @Benchmark
+    public PersonResponse filterById() {
+        return snapshot.findById(ids[next++ & ID_MASK]);
+    }
+
+    @Benchmark
+    public long filterByColor() {
+        List<PersonResponse> persons = snapshot.findByColor(COLORS[next++ % COLORS.length]);
+        long zipcodes = 0;
+        for (PersonResponse person : persons) {
+            zipcodes += person.getZipcode();
+        }
+        return zipcodes;
+    }
+
+    /**
+     * A three-digit prefix, i.e. a range of 100 of the 90000 generated zipcodes. The index is built in the first call.
+     */
+    @Benchmark
+    public long filterByZipcodePrefix() {
+        long from = (ids[next++ & ID_MASK] % 900 + 100) * 100L;
+        long zipcodes = 0;
+        for (PersonResponse person : snapshot.findByZipcode(from, from + 99)) {
+            zipcodes += person.getZipcode();
+        }
+        return zipcodes;
+    }
+
+    /**
+     * Color, city and a two-digit zipcode prefix, about 0.1% of the rows. The indexes are built in the first call.
+     */
+    @Benchmark
+    public long filterByColorCityAndZipcode() {
+        long from = (ids[next++ & ID_MASK] % 90 + 10) * 1000L;
+        PersonFilter filter = new PersonFilter(COLORS[next % COLORS.length], "Berlin", new ZipcodeRange(from, from + 999), null);
+        long zipcodes = 0;
+        for (PersonResponse person : snapshot.filter(filter)) {
+            zipcodes += person.getZipcode();
+        }
+        return zipcodes;
+    }
+
+    @Benchmark
+    public Map<Color, Long> countByColor() {
+        return snapshot.countByColor();
+    }
+}
@@ -0,0 +1,49 @@
+package assecor.assessment.backend.benchmark;
+
+import assecor.assessment.backend.dto.PersonRequest;
+import assecor.assessment.backend.dto.PersonResponse;
+import assecor.assessment.backend.model.Color;
+import assecor.assessment.backend.model.Person;
+import assecor.assessment.backend.util.PersonUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-person conversions used by every endpoint: entity to DTO, request to entity and color id to {@link Color}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersonMappingBenchmark {
+    private final Person person = new Person(1, "Müller", "Hans", 67742, "Lauterecken", Color.blau);
+    private final PersonRequest request = new PersonRequest("Müller", "Hans", 67742, "Lauterecken", 1);
+    private int colorId;
+
+    @Benchmark
+    public PersonResponse convertToDto() {
+        return PersonUtil.convertToDto(person);
+    }
+
+    @Benchmark
+    public Person createPersonInstance() {
+        return PersonUtil.createPersonInstance(request);
+    }
+
+    @Benchmark
+    public Color getColor() {
+        colorId = colorId % 7 + 1;
+        return Color.getColor(colorId);
+    }
+}
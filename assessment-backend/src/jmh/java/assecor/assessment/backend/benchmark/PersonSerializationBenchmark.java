@@ -0,0 +1,83 @@
+package assecor.assessment.backend.benchmark;
+
+import assecor.assessment.backend.dto.PersonResponse;
+import assecor.assessment.backend.model.Person;
+import assecor.assessment.backend.util.PersonUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts all persons to DTOs and writes them as JSON, once as the array returned by {@code GET /persons}
+ * and once record by record like the NDJSON export. Output goes to a stream that only counts bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PersonSerializationBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    private int rows;
+
+    private List<Person> persons;
+    private ObjectWriter listWriter;
+    private ObjectWriter personWriter;
+
+    @Setup(Level.Trial)
+    public void generatePersons() {
+        persons = SyntheticPersons.generate(rows);
+        ObjectMapper objectMapper = new ObjectMapper();
+        listWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, PersonResponse.class));
+        personWriter = objectMapper.writerFor(PersonResponse.class);
+    }
+
+    @Benchmark
+    public long jsonArray() throws IOException {
+        CountingOutputStream output = new CountingOutputStream();
+        listWriter.writeValue(output, persons.stream().map(PersonUtil::convertToDto).toList());
+        return output.count;
+    }
+
+    @Benchmark
+    public long ndjson() throws IOException {
+        CountingOutputStream output = new CountingOutputStream();
+        for (Person person : persons) {
+            output.write(personWriter.writeValueAsBytes(PersonUtil.convertToDto(person)));
+            output.write('\n');
+        }
+        return output.count;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
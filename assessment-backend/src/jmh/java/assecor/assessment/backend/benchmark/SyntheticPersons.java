@@ -0,0 +1,63 @@
+package assecor.assessment.backend.benchmark;
+
+import assecor.assessment.backend.model.Color;
+import assecor.assessment.backend.model.Person;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Reproducible person data for the benchmarks, as objects or as a CSV file in the input format.
+ */
+public final class SyntheticPersons {
+    private static final long SEED = 42;
+    private static final String[] FIRSTNAMES = {"Hans", "Peter", "Johnny", "Milly", "Anders", "Bertram", "Gerda", "Klaus", "Jörg", "Ümit"};
+    private static final String[] LASTNAMES = {"Müller", "Petersen", "Johnson", "Millenium", "Andersson", "Bart", "Gerber", "Klaussen", "Schäfer", "Yilmaz"};
+    private static final String[] CITIES = {"Lauterecken", "Stralsund", "made up", "Berlin", "Schweden - ☀", "Wasweißich", "Hamburg", "Köln", "München", "Bonn"};
+
+    private SyntheticPersons() {
+    }
+
+    public static List<Person> generate(int rows) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Person> persons = new ArrayList<>(rows);
+        for (int id = 1; id <= rows; id++) {
+            persons.add(new Person(id,
+                    LASTNAMES[random.nextInt(LASTNAMES.length)],
+                    FIRSTNAMES[random.nextInt(FIRSTNAMES.length)],
+                    random.nextInt(10000, 100000),
+                    CITIES[random.nextInt(CITIES.length)],
+                    Color.getColor(random.nextInt(1, 8))));
+        }
+        return persons;
+    }
+
+    /**
+     * Writes {@code rows} lines ({@code lastname, firstname, zip city, color}) to a temporary file.
+     */
+    public static Path writeCsv(int rows) throws IOException {
+        SplittableRandom random = new SplittableRandom(SEED);
+        Path file = Files.createTempFile("persons-" + rows + "-", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < rows; i++) {
+                writer.write(LASTNAMES[random.nextInt(LASTNAMES.length)]);
+                writer.write(", ");
+                writer.write(FIRSTNAMES[random.nextInt(FIRSTNAMES.length)]);
+                writer.write(", ");
+                writer.write(Integer.toString(random.nextInt(10000, 100000)));
+                writer.write(' ');
+                writer.write(CITIES[random.nextInt(CITIES.length)]);
+                writer.write(", ");
+                writer.write(Integer.toString(random.nextInt(1, 8)));
+                writer.write("\r\n");
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,72 @@
+package assecor.assessment.backend.io;
+
+import assecor.assessment.backend.benchmark.SyntheticPersons;
+import assecor.assessment.backend.model.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses a whole synthetic CSV file with the streaming reader and with the parallel loader,
+ * the two {@code persons.csv.loader} modes of {@link FileSystem#loadDataFromCsv}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CsvParseBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    private int rows;
+
+    private Path file;
+    private ParallelCsvLoader parallelLoader;
+
+    @Setup(Level.Trial)
+    public void writeFile() throws IOException {
+        file = SyntheticPersons.writeCsv(rows);
+        parallelLoader = new ParallelCsvLoader(ForkJoinPool.commonPool(), ParallelCsvLoader.DEFAULT_CHUNK_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int streaming(Blackhole blackhole) throws IOException {
+        int count = 0;
+        try (PersonCsvReader reader = new PersonCsvReader(Files.newInputStream(file))) {
+            while (reader.hasNext()) {
+                blackhole.consume(reader.next());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public List<Person> parallel() throws IOException {
+        return parallelLoader.load(file);
+    }
+}
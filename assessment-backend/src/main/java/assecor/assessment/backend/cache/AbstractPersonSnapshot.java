@@ -0,0 +1,284 @@
+package assecor.assessment.backend.cache;
+
+import assecor.assessment.backend.dto.PersonResponse;
+import assecor.assessment.backend.model.Color;
+import assecor.assessment.backend.model.Person;
+import assecor.assessment.backend.util.PersonFilter;
+import assecor.assessment.backend.util.ZipcodeRange;
+import lombok.Getter;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Lookups shared by the snapshot layouts. Since ids are dense, the row of id {@code n} is at position
+ * {@code n - 1}, so a lookup by id or a page after an id is plain position arithmetic.
+ * <p>
+ * The {@link ZipcodeIndex} is built on the first zipcode query. Snapshots appended to an indexed snapshot
+ * inherit its index and scan the few rows added since, until they outgrow it and it is rebuilt.
+ * The {@link BitmapIndex} used by {@link #filter} is maintained the same way. The {@link NameIndex} used by
+ * {@link #search} is built on the first search as well, but appends add their row to it: every snapshot of a
+ * file load shares it and only accepts the ids of its own rows.
+ */
+abstract class AbstractPersonSnapshot implements PersonSnapshot {
+    private static final int MIN_UNINDEXED_ROWS = 1024;
+
+    @Getter
+    private final long version;
+    @Getter
+    private final boolean stale;
+    protected final int size;
+    protected final ColorIndex colorIndex;
+    protected volatile ZipcodeIndex zipcodeIndex;
+    protected volatile BitmapIndex bitmapIndex;
+    protected volatile NameIndex nameIndex;
+
+    protected AbstractPersonSnapshot(long version, boolean stale, int size, ColorIndex colorIndex,
+                                     ZipcodeIndex zipcodeIndex, BitmapIndex bitmapIndex, NameIndex nameIndex) {
+        this.version = version;
+        this.stale = stale;
+        this.size = size;
+        this.colorIndex = colorIndex;
+        this.zipcodeIndex = zipcodeIndex;
+        this.bitmapIndex = bitmapIndex;
+        this.nameIndex = nameIndex;
+    }
+
+    /**
+     * Materializes the row at {@code position}.
+     */
+    protected abstract PersonResponse row(int position);
+
+    protected abstract String lastname(int position);
+
+    protected abstract String firstname(int position);
+
+    protected abstract long zipcode(int position);
+
+    protected abstract String city(int position);
+
+    protected abstract Color color(int position);
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public List<PersonResponse> getPersons() {
+        return range(0, size);
+    }
+
+    @Override
+    public List<PersonResponse> findAfter(int afterId, int limit) {
+        int from = Math.min(Math.max(afterId, 0), size);
+        int to = (int) Math.min((long) from + limit, size);
+        return range(from, to);
+    }
+
+    @Override
+    public PersonResponse findById(int id) {
+        return id >= 1 && id <= size ? row(id - 1) : null;
+    }
+
+    @Override
+    public List<PersonResponse> findByColor(Color color) {
+        return colorIndex.rows(color, this::row);
+    }
+
+    @Override
+    public Map<Color, Long> countByColor() {
+        return colorIndex.countByColor();
+    }
+
+    @Override
+    public List<PersonResponse> findByZipcode(long from, long to) {
+        ZipcodeIndex index = zipcodeIndex();
+        int[] indexed = index.find(from, to);
+        int[] unindexed = IntStream.range(index.size(), size)
+                .filter(position -> zipcode(position) >= from && zipcode(position) <= to)
+                .toArray();
+        return rows(unindexed.length == 0 ? indexed : merge(indexed, unindexed));
+    }
+
+    /**
+     * Intersects the bitmaps of color and city, smallest first. The zipcode range joins the intersection
+     * when it matches fewer rows than the smallest bitmap; otherwise it is checked on the remaining
+     * candidates, like the lastname prefix. Rows are only materialized once they are known to match.
+     */
+    @Override
+    public List<PersonResponse> filter(PersonFilter filter) {
+        BitmapIndex index = bitmapIndex();
+        int indexed = index.size();
+        List<RoaringBitmap> bitmaps = new ArrayList<>(3);
+        if (filter.color() != null) {
+            bitmaps.add(index.color(filter.color()));
+        }
+        if (filter.city() != null) {
+            bitmaps.add(index.city(filter.city()));
+        }
+        ZipcodeRange zipcodes = filter.zipcodes();
+        if (zipcodes != null) {
+            ZipcodeIndex zipcodeIndex = zipcodeIndex();
+            long matching = zipcodeIndex.count(zipcodes.from(), zipcodes.to());
+            if (bitmaps.stream().allMatch(bitmap -> matching < bitmap.getLongCardinality())) {
+                bitmaps.add(zipcodeRows(zipcodeIndex, zipcodes, indexed));
+                zipcodes = null;
+            }
+        }
+
+        RoaringBitmap candidates = bitmaps.isEmpty() ? RoaringBitmap.bitmapOfRange(0, indexed) : intersect(bitmaps);
+        PersonFilter remaining = new PersonFilter(null, null, zipcodes, filter.lastnamePrefix());
+        boolean checkRemaining = zipcodes != null || filter.lastnamePrefix() != null;
+        int[] positions = IntStream.concat(
+                        candidates.stream().filter(position -> !checkRemaining || matches(remaining, position)),
+                        IntStream.range(indexed, size).filter(position -> matches(filter, position)))
+                .toArray();
+        return rows(positions);
+    }
+
+    @Override
+    public List<PersonResponse> search(String query, int limit) {
+        int[] ids = nameIndex().search(query, limit, id -> id <= size);
+        return rows(Arrays.stream(ids).map(id -> id - 1).toArray());
+    }
+
+    /**
+     * Adds the row appended at {@code size} to the name index, if there is one yet, and returns the index
+     * for the appended snapshot. Only called on the most recent snapshot, under the write lock of its owner.
+     */
+    protected NameIndex appendToNameIndex(Person person) {
+        NameIndex index = nameIndex;
+        if (index != null) {
+            index.add(size + 1, person.getLastname(), person.getFirstname());
+        }
+        return index;
+    }
+
+    private NameIndex nameIndex() {
+        NameIndex index = nameIndex;
+        if (index == null) {
+            index = new NameIndex();
+            for (int position = 0; position < size; position++) {
+                index.add(position + 1, lastname(position), firstname(position));
+            }
+            nameIndex = index;
+        }
+        return index;
+    }
+
+    private boolean matches(PersonFilter filter, int position) {
+        return filter.matches(lastname(position), zipcode(position), city(position), color(position));
+    }
+
+    private static RoaringBitmap intersect(List<RoaringBitmap> bitmaps) {
+        bitmaps.sort(Comparator.comparingLong(RoaringBitmap::getLongCardinality));
+        RoaringBitmap result = bitmaps.get(0);
+        for (int i = 1; i < bitmaps.size() && !result.isEmpty(); i++) {
+            result = RoaringBitmap.and(result, bitmaps.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Positions below {@code limit} with a zipcode in {@code range}.
+     */
+    private RoaringBitmap zipcodeRows(ZipcodeIndex index, ZipcodeRange range, int limit) {
+        RoaringBitmap rows = new RoaringBitmap();
+        for (int position : index.find(range.from(), range.to())) {
+            if (position < limit) {
+                rows.add(position);
+            }
+        }
+        for (int position = index.size(); position < limit; position++) {
+            if (zipcode(position) >= range.from() && zipcode(position) <= range.to()) {
+                rows.add(position);
+            }
+        }
+        return rows;
+    }
+
+    private ZipcodeIndex zipcodeIndex() {
+        ZipcodeIndex index = zipcodeIndex;
+        if (index == null || outgrown(index.size())) {
+            index = ZipcodeIndex.build(size, this::zipcode);
+            zipcodeIndex = index;
+        }
+        return index;
+    }
+
+    private BitmapIndex bitmapIndex() {
+        BitmapIndex index = bitmapIndex;
+        if (index == null || outgrown(index.size())) {
+            index = BitmapIndex.build(size, position -> color(position).ordinal(), this::city);
+            bitmapIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Whether an index of the first {@code indexed} rows leaves too many rows to scan.
+     */
+    private boolean outgrown(int indexed) {
+        return size - indexed > Math.max(MIN_UNINDEXED_ROWS, indexed / 16);
+    }
+
+    /**
+     * Merges the unindexed matches into the indexed ones by zipcode. Unindexed rows come after all indexed
+     * rows, so on equal zipcodes the indexed rows go first.
+     */
+    private int[] merge(int[] indexed, int[] unindexed) {
+        int[] tail = Arrays.stream(unindexed).boxed()
+                .sorted(Comparator.comparingLong(this::zipcode))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        int[] merged = new int[indexed.length + tail.length];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < merged.length; k++) {
+            if (j == tail.length || i < indexed.length && zipcode(indexed[i]) <= zipcode(tail[j])) {
+                merged[k] = indexed[i++];
+            } else {
+                merged[k] = tail[j++];
+            }
+        }
+        return merged;
+    }
+
+    private List<PersonResponse> rows(int[] positions) {
+        return new AbstractList<>() {
+            @Override
+            public PersonResponse get(int index) {
+                return row(positions[index]);
+            }
+
+            @Override
+            public int size() {
+                return positions.length;
+            }
+        };
+    }
+
+    private List<PersonResponse> range(int from, int to) {
+        return new AbstractList<>() {
+            @Override
+            public PersonResponse get(int index) {
+                if (index < 0 || index >= to - from) {
+                    throw new IndexOutOfBoundsException(index);
+                }
+                return row(from + index);
+            }
+
+            @Override
+            public int size() {
+                return to - from;
+            }
+        };
+    }
+}
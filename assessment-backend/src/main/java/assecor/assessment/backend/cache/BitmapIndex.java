@@ -0,0 +1,63 @@
+package assecor.assessment.backend.cache;
+
+import assecor.assessment.backend.model.Color;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Compressed bitmaps of the row positions per {@link Color} and per city for the first {@link #size()} rows
+ * of a snapshot, so that the equality criteria of a filter are intersected without reading any row.
+ * The bitmaps are never modified once built.
+ */
+final class BitmapIndex {
+    private static final RoaringBitmap NONE = new RoaringBitmap();
+
+    private final int size;
+    private final RoaringBitmap[] colors;
+    private final Map<String, RoaringBitmap> cities;
+
+    private BitmapIndex(int size, RoaringBitmap[] colors, Map<String, RoaringBitmap> cities) {
+        this.size = size;
+        this.colors = colors;
+        this.cities = cities;
+    }
+
+    /**
+     * Indexes the rows {@code [0, size)}, whose color ordinals and cities are returned by {@code colorOf} and {@code cityOf}.
+     */
+    static BitmapIndex build(int size, IntUnaryOperator colorOf, IntFunction<String> cityOf) {
+        RoaringBitmap[] colors = new RoaringBitmap[ColorIndex.COLORS.length];
+        for (int i = 0; i < colors.length; i++) {
+            colors[i] = new RoaringBitmap();
+        }
+        Map<String, RoaringBitmap> cities = new HashMap<>();
+        for (int position = 0; position < size; position++) {
+            colors[colorOf.applyAsInt(position)].add(position);
+            cities.computeIfAbsent(cityOf.apply(position), city -> new RoaringBitmap()).add(position);
+        }
+        for (RoaringBitmap bitmap : colors) {
+            bitmap.runOptimize();
+        }
+        cities.values().forEach(RoaringBitmap::runOptimize);
+        return new BitmapIndex(size, colors, cities);
+    }
+
+    /**
+     * Number of rows covered by this index.
+     */
+    int size() {
+        return size;
+    }
+
+    RoaringBitmap color(Color color) {
+        return colors[color.ordinal()];
+    }
+
+    RoaringBitmap city(String city) {
+        return cities.getOrDefault(city, NONE);
+    }
+}
@@ -0,0 +1,99 @@
+package assecor.assessment.backend.cache;
+
+import assecor.assessment.backend.model.Color;
+import assecor.assessment.backend.model.Person;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Row positions of a snapshot bucketed per {@link Color}, so a color query returns its precomputed bucket.
+ * Buckets are shared with the index an instance was appended to and only grown when full; every
+ * instance only reads the first {@code counts[color]} positions of a bucket.
+ */
+final class ColorIndex {
+    static final Color[] COLORS = Color.values();
+    private static final int MIN_CAPACITY = 16;
+
+    private final int[][] buckets;
+    private final int[] counts;
+
+    /**
+     * Builds the index for {@code size} rows whose color ordinals are returned by {@code colorOf}.
+     */
+    ColorIndex(int size, IntUnaryOperator colorOf) {
+        this.counts = new int[COLORS.length];
+        for (int position = 0; position < size; position++) {
+            counts[colorOf.applyAsInt(position)]++;
+        }
+        this.buckets = new int[COLORS.length][];
+        for (int i = 0; i < COLORS.length; i++) {
+            buckets[i] = new int[Math.max(MIN_CAPACITY, counts[i])];
+        }
+        int[] fill = new int[COLORS.length];
+        for (int position = 0; position < size; position++) {
+            int color = colorOf.applyAsInt(position);
+            buckets[color][fill[color]++] = position;
+        }
+    }
+
+    static ColorIndex of(List<Person> persons) {
+        return new ColorIndex(persons.size(), position -> persons.get(position).getColor().ordinal());
+    }
+
+    private ColorIndex(int[][] buckets, int[] counts) {
+        this.buckets = buckets;
+        this.counts = counts;
+    }
+
+    /**
+     * Returns the rows of {@code color} in file order, created by {@code row} from their positions on access.
+     */
+    <T> List<T> rows(Color color, IntFunction<T> row) {
+        int[] bucket = buckets[color.ordinal()];
+        int count = counts[color.ordinal()];
+        return new AbstractList<>() {
+            @Override
+            public T get(int index) {
+                if (index >= count) {
+                    throw new IndexOutOfBoundsException(index);
+                }
+                return row.apply(bucket[index]);
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    Map<Color, Long> countByColor() {
+        Map<Color, Long> countByColor = new EnumMap<>(Color.class);
+        for (Color color : COLORS) {
+            countByColor.put(color, (long) counts[color.ordinal()]);
+        }
+        return countByColor;
+    }
+
+    /**
+     * Returns an index that additionally holds {@code position} in the bucket of {@code color}.
+     */
+    ColorIndex add(int position, Color color) {
+        int ordinal = color.ordinal();
+        int[][] targetBuckets = buckets.clone();
+        int[] targetCounts = counts.clone();
+        int count = targetCounts[ordinal];
+        if (count == targetBuckets[ordinal].length) {
+            targetBuckets[ordinal] = Arrays.copyOf(targetBuckets[ordinal], count * 2);
+        }
+        targetBuckets[ordinal][count] = position;
+        targetCounts[ordinal] = count + 1;
+        return new ColorIndex(targetBuckets, targetCounts);
+    }
+}
@@ -0,0 +1,139 @@
+package assecor.assessment.backend.cache;
+
+import assecor.assessment.backend.dto.PersonResponse;
+import assecor.assessment.backend.model.Color;
+import assecor.assessment.backend.model.Person;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Snapshot that stores the rows column by column: zipcodes as {@code long}s, colors as ordinal bytes and
+ * names and cities as codes into one {@link StringDictionary}, so each distinct string is held once.
+ * A row costs 21 bytes plus its share of the dictionary instead of a {@link Person} with its own strings.
+ * Ids are not stored since the row of id {@code n} is at position {@code n - 1}.
+ * {@link PersonResponse}s are only created when rows are read.
+ */
+public class ColumnarPersonSnapshot extends AbstractPersonSnapshot {
+    private static final int MIN_CAPACITY = 16;
+
+    private final StringDictionary dictionary;
+    private final String[] strings;
+    private final int[] lastnames;
+    private final int[] firstnames;
+    private final int[] cities;
+    private final long[] zipcodes;
+    private final byte[] colors;
+
+    public ColumnarPersonSnapshot(long version, List<Person> persons) {
+        super(version, false, persons.size(), ColorIndex.of(persons), null, null, null);
+        this.dictionary = new StringDictionary();
+        this.lastnames = new int[size];
+        this.firstnames = new int[size];
+        this.cities = new int[size];
+        this.zipcodes = new long[size];
+        this.colors = new byte[size];
+        for (int position = 0; position < size; position++) {
+            Person person = persons.get(position);
+            lastnames[position] = dictionary.encode(person.getLastname());
+            firstnames[position] = dictionary.encode(person.getFirstname());
+            cities[position] = dictionary.encode(person.getCity());
+            zipcodes[position] = person.getZipcode();
+            colors[position] = (byte) person.getColor().ordinal();
+        }
+        this.strings = dictionary.values();
+    }
+
+    private ColumnarPersonSnapshot(long version, boolean stale, int size, ColorIndex colorIndex, ZipcodeIndex zipcodeIndex,
+                                   BitmapIndex bitmapIndex, NameIndex nameIndex, StringDictionary dictionary, String[] strings,
+                                   int[] lastnames, int[] firstnames, int[] cities, long[] zipcodes, byte[] colors) {
+        super(version, stale, size, colorIndex, zipcodeIndex, bitmapIndex, nameIndex);
+        this.dictionary = dictionary;
+        this.strings = strings;
+        this.lastnames = lastnames;
+        this.firstnames = firstnames;
+        this.cities = cities;
+        this.zipcodes = zipcodes;
+        this.colors = colors;
+    }
+
+    @Override
+    protected PersonResponse row(int position) {
+        return PersonResponse.builder()
+                .id(position + 1)
+                .lastname(strings[lastnames[position]])
+                .firstname(strings[firstnames[position]])
+                .zipcode(zipcodes[position])
+                .city(strings[cities[position]])
+                .color(ColorIndex.COLORS[colors[position]].name())
+                .build();
+    }
+
+    @Override
+    protected String lastname(int position) {
+        return strings[lastnames[position]];
+    }
+
+    @Override
+    protected String firstname(int position) {
+        return strings[firstnames[position]];
+    }
+
+    @Override
+    protected long zipcode(int position) {
+        return zipcodes[position];
+    }
+
+    @Override
+    protected String city(int position) {
+        return strings[cities[position]];
+    }
+
+    @Override
+    protected Color color(int position) {
+        return ColorIndex.COLORS[colors[position]];
+    }
+
+    /**
+     * The columns, the dictionary and the color buckets are shared with this snapshot and only grown
+     * when full, so appends are amortized O(1).
+     */
+    @Override
+    public ColumnarPersonSnapshot append(Person person, long version) {
+        int[] targetLastnames = lastnames;
+        int[] targetFirstnames = firstnames;
+        int[] targetCities = cities;
+        long[] targetZipcodes = zipcodes;
+        byte[] targetColors = colors;
+        if (size == targetZipcodes.length) {
+            int capacity = Math.max(MIN_CAPACITY, size * 2);
+            targetLastnames = Arrays.copyOf(lastnames, capacity);
+            targetFirstnames = Arrays.copyOf(firstnames, capacity);
+            targetCities = Arrays.copyOf(cities, capacity);
+            targetZipcodes = Arrays.copyOf(zipcodes, capacity);
+            targetColors = Arrays.copyOf(colors, capacity);
+        }
+        targetLastnames[size] = dictionary.encode(person.getLastname());
+        targetFirstnames[size] = dictionary.encode(person.getFirstname());
+        targetCities[size] = dictionary.encode(person.getCity());
+        targetZipcodes[size] = person.getZipcode();
+        targetColors[size] = (byte) person.getColor().ordinal();
+
+        return new ColumnarPersonSnapshot(version, isStale(), size + 1, colorIndex.add(size, person.getColor()), zipcodeIndex,
+                bitmapIndex, appendToNameIndex(person), dictionary, dictionary.values(), targetLastnames, targetFirstnames,
+                targetCities, targetZipcodes, targetColors);
+    }
+
+    @Override
+    public ColumnarPersonSnapshot stale() {
+        return isStale() ? this : new ColumnarPersonSnapshot(getVersion(), true, size, colorIndex, zipcodeIndex, bitmapIndex,
+                nameIndex, dictionary, strings, lastnames, firstnames, cities, zipcodes, colors);
+    }
+
+    /**
+     * Number of distinct names and cities held by the dictionary.
+     */
+    int distinctStrings() {
+        return dictionary.size();
+    }
+}
@@ -0,0 +1,66 @@
+package assecor.assessment.backend.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.Getter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A response body that belongs to one dataset version. The ETags are known up front, the JSON
+ * and its gzip encoding are only produced when first requested and then kept.
+ */
+public class JsonResponse {
+    @Getter
+    private final long version;
+    @Getter
+    private final String etag;
+    private final ObjectWriter writer;
+    private Supplier<?> content;
+    private byte[] json;
+    private byte[] gzip;
+
+    JsonResponse(long version, String etag, ObjectWriter writer, Supplier<?> content) {
+        this.version = version;
+        this.etag = etag;
+        this.writer = writer;
+        this.content = content;
+    }
+
+    /**
+     * Strong ETag of the gzip encoded body, which differs from {@link #getEtag()} as the bytes differ.
+     */
+    public String getGzipEtag() {
+        return etag + "-gzip";
+    }
+
+    public synchronized byte[] json() {
+        if (json == null) {
+            try {
+                json = writer.writeValueAsBytes(content.get());
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+            content = null;
+        }
+        return json;
+    }
+
+    public synchronized byte[] gzip() {
+        if (gzip == null) {
+            byte[] uncompressed = json();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(uncompressed.length / 4 + 64);
+            try (GZIPOutputStream output = new GZIPOutputStream(compressed)) {
+                output.write(uncompressed);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            gzip = compressed.toByteArray();
+        }
+        return gzip;
+    }
+}
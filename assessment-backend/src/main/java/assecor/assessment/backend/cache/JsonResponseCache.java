@@ -0,0 +1,42 @@
+package assecor.assessment.backend.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the latest serialized {@link JsonResponse} per query. A response is reused as long as it is
+ * requested for the same dataset version and replaced once a newer version is requested.
+ * ETags combine the version with the start time of this instance, so they do not repeat after a restart.
+ */
+@Component
+public class JsonResponseCache {
+    private final ObjectWriter writer;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final ConcurrentMap<String, JsonResponse> responses = new ConcurrentHashMap<>();
+
+    @Autowired
+    public JsonResponseCache(ObjectMapper objectMapper) {
+        this.writer = objectMapper.writer();
+    }
+
+    /**
+     * Returns the response cached for {@code key} at {@code version}, or a new one whose body is
+     * serialized from {@code content} when it is first needed.
+     */
+    public JsonResponse get(String key, long version, Supplier<?> content) {
+        JsonResponse cached = responses.get(key);
+        if (cached != null && cached.getVersion() == version) {
+            return cached;
+        }
+        JsonResponse created = new JsonResponse(version, epoch + "-" + version, writer, content);
+        JsonResponse stored = responses.merge(key, created,
+                (current, next) -> current.getVersion() >= next.getVersion() ? current : next);
+        return stored.getVersion() == version ? stored : created;
+    }
+}
@@ -0,0 +1,351 @@
+package assecor.assessment.backend.cache;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * Search index over the words of the lastnames and firstnames of persons. Words are folded to lower case
+ * without diacritics, so {@code Muller} finds {@code Müller}. A query word matches a name word
+ * <ul>
+ *     <li>exactly,</li>
+ *     <li>as a prefix, looked up in the sorted term map, or</li>
+ *     <li>fuzzily within one edit for words of three to five letters and two edits for longer ones. Candidates
+ *     are the terms sharing enough trigrams with the query word, which are then checked with a bounded
+ *     Levenshtein distance.</li>
+ * </ul>
+ * Exact matches rank before prefix matches, which rank before fuzzy matches. For a query of several words, every word
+ * has to match and persons are ranked by their matches over all words, then by id.
+ * <p>
+ * Persons are added under a lock; searches do not lock and see every person whose {@link #add} has returned.
+ */
+public final class NameIndex {
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int EXACT = 0;
+    private static final int PREFIX = 1;
+    private static final int FUZZY = 2;
+    private static final int MIN_FUZZY_LENGTH = 3;
+    private static final int MIN_TWO_EDITS_LENGTH = 6;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final BitSet ids = new BitSet();
+    private final ConcurrentMap<String, AppendOnlyInts> terms = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, AppendOnlyInts> sortedTerms = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, AppendOnlyList<String>> termsByTrigram = new ConcurrentHashMap<>();
+    private volatile int size;
+
+    /**
+     * Adds the names of the person with {@code id}. A person that is already indexed is not added again.
+     */
+    public void add(int id, String lastname, String firstname) {
+        Set<String> words = new LinkedHashSet<>(words(lastname));
+        words.addAll(words(firstname));
+        writeLock.lock();
+        try {
+            if (ids.get(id)) {
+                return;
+            }
+            ids.set(id);
+            for (String word : words) {
+                AppendOnlyInts postings = terms.get(word);
+                if (postings == null) {
+                    postings = new AppendOnlyInts();
+                    postings.add(id);
+                    for (String trigram : trigrams(word)) {
+                        termsByTrigram.computeIfAbsent(trigram, key -> new AppendOnlyList<>()).add(word);
+                    }
+                    sortedTerms.put(word, postings);
+                    terms.put(word, postings);
+                } else {
+                    postings.add(id);
+                }
+            }
+            size++;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Number of persons added.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the ids of at most {@code limit} persons accepted by {@code visible} whose names match every word
+     * of {@code query}, best match first.
+     */
+    public int[] search(String query, int limit, IntPredicate visible) {
+        List<String> words = words(query);
+        if (words.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+        return words.size() == 1 ? searchWord(words.get(0), limit, visible) : searchWords(words, limit, visible);
+    }
+
+    /**
+     * Folds {@code value} to lower case and strips diacritics, {@code ß} becomes {@code ss}.
+     */
+    static String fold(String value) {
+        if (value.chars().allMatch(c -> c < 0x80)) {
+            return value.toLowerCase(Locale.ROOT);
+        }
+        String decomposed = Normalizer.normalize(value.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").replace("ß", "ss");
+    }
+
+    static List<String> words(String value) {
+        if (value == null) {
+            return List.of();
+        }
+        return Arrays.stream(SEPARATORS.split(fold(value)))
+                .filter(word -> !word.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * A single word is answered tier by tier, so only as many postings are read as are needed to fill the limit.
+     * Fuzzy matches are only looked for if the exact and prefix matches do not fill it.
+     */
+    private int[] searchWord(String word, int limit, IntPredicate visible) {
+        RoaringBitmap found = new RoaringBitmap();
+        int[] result = new int[limit];
+        int count = 0;
+        AppendOnlyInts exact = terms.get(word);
+        if (exact != null) {
+            count = collect(exact, visible, found, result, count);
+        }
+        for (Iterator<AppendOnlyInts> prefixed = prefixTerms(word).values().iterator(); count < limit && prefixed.hasNext(); ) {
+            count = collect(prefixed.next(), visible, found, result, count);
+        }
+        for (Iterator<String> fuzzy = count < limit ? fuzzyTerms(word).iterator() : Collections.emptyIterator();
+             count < limit && fuzzy.hasNext(); ) {
+            count = collect(terms.get(fuzzy.next()), visible, found, result, count);
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static int collect(AppendOnlyInts postings, IntPredicate visible, RoaringBitmap found, int[] result, int count) {
+        int size = postings.size();
+        int[] ids = postings.values();
+        for (int i = 0; i < size && count < result.length; i++) {
+            if (visible.test(ids[i]) && found.checkedAdd(ids[i])) {
+                result[count++] = ids[i];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Several words are intersected over all their matches, so every candidate can be scored.
+     */
+    private int[] searchWords(List<String> words, int limit, IntPredicate visible) {
+        List<RoaringBitmap[]> tiersPerWord = new ArrayList<>(words.size());
+        RoaringBitmap candidates = null;
+        for (String word : words) {
+            RoaringBitmap[] tiers = tiers(word);
+            tiersPerWord.add(tiers);
+            RoaringBitmap matches = RoaringBitmap.or(tiers);
+            candidates = candidates == null ? matches : RoaringBitmap.and(candidates, matches);
+            if (candidates.isEmpty()) {
+                return new int[0];
+            }
+        }
+
+        List<int[]> scored = new ArrayList<>();
+        candidates.forEach((int id) -> {
+            if (visible.test(id)) {
+                int penalty = 0;
+                for (RoaringBitmap[] tiers : tiersPerWord) {
+                    penalty += tiers[EXACT].contains(id) ? EXACT : tiers[PREFIX].contains(id) ? PREFIX : FUZZY;
+                }
+                scored.add(new int[]{penalty, id});
+            }
+        });
+        return scored.stream()
+                .sorted(Comparator.<int[]>comparingInt(entry -> entry[0]).thenComparingInt(entry -> entry[1]))
+                .limit(limit)
+                .mapToInt(entry -> entry[1])
+                .toArray();
+    }
+
+    private RoaringBitmap[] tiers(String word) {
+        RoaringBitmap[] tiers = {new RoaringBitmap(), new RoaringBitmap(), new RoaringBitmap()};
+        AppendOnlyInts exact = terms.get(word);
+        if (exact != null) {
+            exact.addTo(tiers[EXACT]);
+        }
+        for (AppendOnlyInts postings : prefixTerms(word).values()) {
+            postings.addTo(tiers[PREFIX]);
+        }
+        for (String term : fuzzyTerms(word)) {
+            terms.get(term).addTo(tiers[FUZZY]);
+        }
+        tiers[PREFIX].andNot(tiers[EXACT]);
+        tiers[FUZZY].andNot(tiers[EXACT]);
+        tiers[FUZZY].andNot(tiers[PREFIX]);
+        return tiers;
+    }
+
+    private NavigableMap<String, AppendOnlyInts> prefixTerms(String word) {
+        return sortedTerms.subMap(word, false, word + Character.MAX_VALUE, false);
+    }
+
+    /**
+     * Terms that are neither {@code word} nor start with it and are within the allowed edit distance, closest
+     * first. With both ends padded by two characters, a term within {@code k} edits shares at least
+     * {@code r = grams - 3k} of the {@code grams} trigrams of the word, so it is found in at least one of any
+     * {@code grams - r + 1} of them. Only the terms of that many of the rarest trigrams are compared.
+     */
+    private List<String> fuzzyTerms(String word) {
+        int maxEdits = word.length() < MIN_FUZZY_LENGTH ? 0 : word.length() < MIN_TWO_EDITS_LENGTH ? 1 : 2;
+        if (maxEdits == 0) {
+            return List.of();
+        }
+        List<AppendOnlyList<String>> lists = new ArrayList<>();
+        for (String trigram : new LinkedHashSet<>(trigrams(word))) {
+            AppendOnlyList<String> list = termsByTrigram.get(trigram);
+            lists.add(list == null ? new AppendOnlyList<>() : list);
+        }
+        lists.sort(Comparator.comparingInt(AppendOnlyList::size));
+
+        Set<String> compared = new HashSet<>();
+        List<String> matches = new ArrayList<>();
+        Map<String, Integer> distances = new HashMap<>();
+        for (AppendOnlyList<String> list : lists.subList(0, Math.min(lists.size(), 3 * maxEdits + 1))) {
+            int size = list.size();
+            Object[] values = list.values();
+            for (int i = 0; i < size; i++) {
+                String term = (String) values[i];
+                if (Math.abs(term.length() - word.length()) <= maxEdits && !term.startsWith(word)
+                        && terms.containsKey(term) && compared.add(term)) {
+                    int distance = distance(word, term, maxEdits);
+                    if (distance <= maxEdits) {
+                        matches.add(term);
+                        distances.put(term, distance);
+                    }
+                }
+            }
+        }
+        matches.sort(Comparator.<String>comparingInt(distances::get).thenComparing(Comparator.naturalOrder()));
+        return matches;
+    }
+
+    private static List<String> trigrams(String word) {
+        String padded = "\u0000\u0000" + word + "\u0000\u0000";
+        List<String> trigrams = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Levenshtein distance of {@code a} and {@code b}, or {@code maxEdits + 1} as soon as it is known to be larger.
+     */
+    static int distance(String a, String b, int maxEdits) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], maxEdits + 1);
+    }
+
+    /**
+     * Growable int array with a single writer. The element is stored before the size is raised, so a reader
+     * that reads {@link #size()} before {@link #values()} sees that many elements.
+     */
+    private static final class AppendOnlyInts {
+        private volatile int[] values = new int[4];
+        private volatile int size;
+
+        void add(int value) {
+            int[] target = values;
+            if (size == target.length) {
+                target = Arrays.copyOf(target, size * 2);
+                values = target;
+            }
+            target[size] = value;
+            size = size + 1;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] values() {
+            return values;
+        }
+
+        void addTo(RoaringBitmap bitmap) {
+            int count = size;
+            bitmap.addN(values, 0, count);
+        }
+    }
+
+    /**
+     * Object counterpart of {@link AppendOnlyInts}.
+     */
+    private static final class AppendOnlyList<T> {
+        private volatile Object[] values = new Object[4];
+        private volatile int size;
+
+        void add(T value) {
+            Object[] target = values;
+            if (size == target.length) {
+                target = Arrays.copyOf(target, size * 2);
+                values = target;
+            }
+            target[size] = value;
+            size = size + 1;
+        }
+
+        int size() {
+            return size;
+        }
+
+        Object[] values() {
+            return values;
+        }
+    }
+}
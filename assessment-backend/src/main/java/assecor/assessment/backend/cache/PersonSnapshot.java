@@ -0,0 +1,74 @@
+package assecor.assessment.backend.cache;
+
+import assecor.assessment.backend.dto.PersonResponse;
+import assecor.assessment.backend.model.Color;
+import assecor.assessment.backend.model.Person;
+import assecor.assessment.backend.util.PersonFilter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, versioned view of the persons parsed from the CSV file.
+ * A new snapshot is built whenever the file is (re)loaded, so readers can keep
+ * working on the instance they obtained while a newer version is published.
+ * A snapshot that no longer matches the file is replaced by a {@link #stale()} copy,
+ * which can still be served while the file is parsed again.
+ * <p>
+ * Ids are assigned sequentially from 1 in file order. Rows are handed out as {@link PersonResponse}s
+ * that are created on access, so implementations are free to store them in any layout.
+ */
+public interface PersonSnapshot {
+
+    long getVersion();
+
+    boolean isStale();
+
+    int size();
+
+    List<PersonResponse> getPersons();
+
+    /**
+     * Returns the persons with an id greater than {@code afterId}, at most {@code limit} of them.
+     */
+    List<PersonResponse> findAfter(int afterId, int limit);
+
+    /**
+     * Returns the person with the given id, or {@code null} if there is none.
+     */
+    PersonResponse findById(int id);
+
+    List<PersonResponse> findByColor(Color color);
+
+    Map<Color, Long> countByColor();
+
+    /**
+     * Returns the persons with a zipcode in {@code [from, to]}, ordered by zipcode and then by id.
+     */
+    List<PersonResponse> findByZipcode(long from, long to);
+
+    /**
+     * Returns the persons matching all criteria of {@code filter}, ordered by id.
+     */
+    List<PersonResponse> filter(PersonFilter filter);
+
+    /**
+     * Returns at most {@code limit} persons whose names match {@code query}, best match first, see {@link NameIndex}.
+     */
+    List<PersonResponse> search(String query, int limit);
+
+    default int nextId() {
+        return size() + 1;
+    }
+
+    /**
+     * Returns a new snapshot containing {@code person} as its last row, sharing as much data with this
+     * snapshot as possible. Only the most recent snapshot may be appended to.
+     */
+    PersonSnapshot append(Person person, long version);
+
+    /**
+     * Returns this snapshot marked as stale, sharing all data with it.
+     */
+    PersonSnapshot stale();
+}
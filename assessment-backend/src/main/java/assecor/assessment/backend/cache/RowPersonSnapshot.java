@@ -0,0 +1,80 @@
+package assecor.assessment.backend.cache;
+
+import assecor.assessment.backend.dto.PersonResponse;
+import assecor.assessment.backend.model.Color;
+import assecor.assessment.backend.model.Person;
+import assecor.assessment.backend.util.PersonUtil;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Snapshot that keeps the parsed {@link Person} objects in a dense array, so a lookup by id is a plain
+ * array access.
+ */
+public class RowPersonSnapshot extends AbstractPersonSnapshot {
+    private static final int MIN_CAPACITY = 16;
+
+    private final Person[] rows;
+
+    public RowPersonSnapshot(long version, List<Person> persons) {
+        super(version, false, persons.size(), ColorIndex.of(persons), null, null, null);
+        this.rows = persons.toArray(new Person[0]);
+    }
+
+    private RowPersonSnapshot(long version, Person[] rows, int size, ColorIndex colorIndex, ZipcodeIndex zipcodeIndex,
+                              BitmapIndex bitmapIndex, NameIndex nameIndex, boolean stale) {
+        super(version, stale, size, colorIndex, zipcodeIndex, bitmapIndex, nameIndex);
+        this.rows = rows;
+    }
+
+    @Override
+    protected PersonResponse row(int position) {
+        return PersonUtil.convertToDto(rows[position]);
+    }
+
+    @Override
+    protected String lastname(int position) {
+        return rows[position].getLastname();
+    }
+
+    @Override
+    protected String firstname(int position) {
+        return rows[position].getFirstname();
+    }
+
+    @Override
+    protected long zipcode(int position) {
+        return rows[position].getZipcode();
+    }
+
+    @Override
+    protected String city(int position) {
+        return rows[position].getCity();
+    }
+
+    @Override
+    protected Color color(int position) {
+        return rows[position].getColor();
+    }
+
+    /**
+     * The row array and the color buckets are shared with this snapshot and only grown when full,
+     * so appends are amortized O(1).
+     */
+    @Override
+    public RowPersonSnapshot append(Person person, long version) {
+        Person[] targetRows = rows;
+        if (size == targetRows.length) {
+            targetRows = Arrays.copyOf(rows, Math.max(MIN_CAPACITY, size * 2));
+        }
+        targetRows[size] = person;
+        return new RowPersonSnapshot(version, targetRows, size + 1, colorIndex.add(size, person.getColor()),
+                zipcodeIndex, bitmapIndex, appendToNameIndex(person), isStale());
+    }
+
+    @Override
+    public RowPersonSnapshot stale() {
+        return isStale() ? this : new RowPersonSnapshot(getVersion(), rows, size, colorIndex, zipcodeIndex, bitmapIndex, nameIndex, true);
+    }
+}
@@ -0,0 +1,41 @@
+package assecor.assessment.backend.cache;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Append-only dictionary that assigns every distinct string a dense int code. Codes never change, so a
+ * snapshot can keep the {@link #values()} array it was built with while later appends add codes to a
+ * grown copy. Encoding is not thread-safe and is only done by the thread building or appending to a snapshot.
+ */
+final class StringDictionary {
+    private static final int MIN_CAPACITY = 16;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private String[] values = new String[MIN_CAPACITY];
+
+    int encode(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = codes.size();
+            if (code == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[code] = value;
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    /**
+     * The decoded values, indexed by code. Only the codes handed out so far are filled in.
+     */
+    String[] values() {
+        return values;
+    }
+
+    int size() {
+        return codes.size();
+    }
+}
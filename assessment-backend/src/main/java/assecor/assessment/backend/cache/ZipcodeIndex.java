@@ -0,0 +1,97 @@
+package assecor.assessment.backend.cache;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.IntToLongFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Zipcodes of the first {@link #size()} rows of a snapshot in ascending order, with the row position of
+ * each entry in a parallel array. Rows with the same zipcode are in position order. A range is located
+ * with two binary searches, so a query costs O(log n + k).
+ */
+final class ZipcodeIndex {
+    private final long[] zipcodes;
+    private final int[] positions;
+
+    private ZipcodeIndex(long[] zipcodes, int[] positions) {
+        this.zipcodes = zipcodes;
+        this.positions = positions;
+    }
+
+    /**
+     * Indexes the rows {@code [0, size)}. Zipcodes that fit into 31 bits are sorted packed together with
+     * their position into one primitive {@code long}; other values fall back to sorting boxed positions.
+     */
+    static ZipcodeIndex build(int size, IntToLongFunction zipcodeOf) {
+        long[] zipcodes = new long[size];
+        int[] positions = new int[size];
+        boolean packable = true;
+        for (int position = 0; position < size; position++) {
+            long zipcode = zipcodeOf.applyAsLong(position);
+            packable &= zipcode >= 0 && zipcode <= Integer.MAX_VALUE;
+            zipcodes[position] = zipcode;
+        }
+
+        if (packable) {
+            long[] packed = new long[size];
+            for (int position = 0; position < size; position++) {
+                packed[position] = zipcodes[position] << 32 | position;
+            }
+            Arrays.parallelSort(packed);
+            for (int i = 0; i < size; i++) {
+                zipcodes[i] = packed[i] >>> 32;
+                positions[i] = (int) packed[i];
+            }
+        } else {
+            long[] unsorted = zipcodes.clone();
+            Integer[] sorted = IntStream.range(0, size).boxed().toArray(Integer[]::new);
+            Arrays.sort(sorted, Comparator.comparingLong(position -> unsorted[position]));
+            for (int i = 0; i < size; i++) {
+                positions[i] = sorted[i];
+                zipcodes[i] = unsorted[sorted[i]];
+            }
+        }
+        return new ZipcodeIndex(zipcodes, positions);
+    }
+
+    /**
+     * Number of rows covered by this index.
+     */
+    int size() {
+        return positions.length;
+    }
+
+    /**
+     * Returns the positions of the rows with a zipcode in {@code [from, to]}, ordered by zipcode.
+     */
+    int[] find(long from, long to) {
+        int start = firstAtLeast(from);
+        return Arrays.copyOfRange(positions, start, Math.max(start, end(to)));
+    }
+
+    /**
+     * Number of rows with a zipcode in {@code [from, to]}, without copying their positions.
+     */
+    int count(long from, long to) {
+        return Math.max(0, end(to) - firstAtLeast(from));
+    }
+
+    private int end(long to) {
+        return to == Long.MAX_VALUE ? zipcodes.length : firstAtLeast(to + 1);
+    }
+
+    private int firstAtLeast(long zipcode) {
+        int low = 0;
+        int high = zipcodes.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (zipcodes[middle] < zipcode) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
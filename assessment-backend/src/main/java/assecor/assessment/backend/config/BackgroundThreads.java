@@ -0,0 +1,38 @@
+package assecor.assessment.backend.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts the long-running background threads of the application, such as the CSV writer and the file watcher.
+ * They follow {@code spring.threads.virtual.enabled} like Tomcat and the application task executor do:
+ * virtual threads when it is set, daemon platform threads otherwise.
+ */
+@Component
+public class BackgroundThreads {
+    private final boolean virtual;
+
+    @Autowired
+    public BackgroundThreads(Environment environment) {
+        this(Threading.VIRTUAL.isActive(environment));
+    }
+
+    public BackgroundThreads(boolean virtual) {
+        this.virtual = virtual;
+    }
+
+    public static BackgroundThreads platform() {
+        return new BackgroundThreads(false);
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public Thread start(String name, Runnable task) {
+        Thread.Builder builder = virtual ? Thread.ofVirtual() : Thread.ofPlatform().daemon(true);
+        return builder.name(name).start(task);
+    }
+}
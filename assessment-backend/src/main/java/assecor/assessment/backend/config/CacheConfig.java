@@ -0,0 +1,40 @@
+package assecor.assessment.backend.config;
+
+import assecor.assessment.backend.service.PersonService;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * In-process Caffeine caches for the MongoDB lookups of {@link PersonService}. Both caches are bounded
+ * by {@code persons.cache.max-persons} (a color list weighs as many persons as it holds), expire after
+ * {@code persons.cache.ttl} and record statistics, which are published as {@code cache.*} meters.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(PersonProperties properties) {
+        PersonProperties.Cache cache = properties.getCache();
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(PersonService.PERSONS_BY_ID, Caffeine.newBuilder()
+                .maximumSize(cache.getMaxPersons())
+                .expireAfterWrite(cache.getTtl())
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(PersonService.PERSONS_BY_COLOR, Caffeine.newBuilder()
+                .maximumWeight(cache.getMaxPersons())
+                .weigher((Object color, Object persons) -> ((List<?>) persons).size())
+                .expireAfterWrite(cache.getTtl())
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+}
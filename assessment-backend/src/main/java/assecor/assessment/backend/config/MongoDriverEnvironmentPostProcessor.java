@@ -0,0 +1,41 @@
+package assecor.assessment.backend.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Connects only the MongoDB driver of the web stack that runs. A reactive web application
+ * ({@code spring.main.web-application-type=reactive}) leaves out the blocking client, template and repositories,
+ * any other application the reactive-streams client, template and repositories. Exclusions configured in
+ * {@code spring.autoconfigure.exclude} are kept.
+ */
+public class MongoDriverEnvironmentPostProcessor implements EnvironmentPostProcessor {
+    static final String EXCLUDE_PROPERTY = "spring.autoconfigure.exclude";
+    static final List<String> BLOCKING_MONGO_AUTO_CONFIGURATIONS = List.of(
+            "org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.mongo.MongoRepositoriesAutoConfiguration");
+    static final List<String> REACTIVE_MONGO_AUTO_CONFIGURATIONS = List.of(
+            "org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.mongo.MongoReactiveDataAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.mongo.MongoReactiveRepositoriesAutoConfiguration");
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        String webApplicationType = environment.getProperty("spring.main.web-application-type");
+        boolean reactive = webApplicationType == null
+                ? application.getWebApplicationType() == WebApplicationType.REACTIVE
+                : WebApplicationType.REACTIVE.name().equalsIgnoreCase(webApplicationType.trim());
+        List<String> excluded = new ArrayList<>(List.of(environment.getProperty(EXCLUDE_PROPERTY, String[].class, new String[0])));
+        excluded.addAll(reactive ? BLOCKING_MONGO_AUTO_CONFIGURATIONS : REACTIVE_MONGO_AUTO_CONFIGURATIONS);
+        environment.getPropertySources().addFirst(new MapPropertySource("mongoDriver",
+                Map.of(EXCLUDE_PROPERTY, String.join(",", excluded))));
+    }
+}
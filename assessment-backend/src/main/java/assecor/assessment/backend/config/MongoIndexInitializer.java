@@ -0,0 +1,52 @@
+package assecor.assessment.backend.config;
+
+import assecor.assessment.backend.model.Person;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the indexes declared on {@link Person} once the application is up.
+ * Runs in the background so the CSV endpoints stay available while MongoDB is unreachable.
+ * The reactive web stack uses {@link ReactiveMongoIndexInitializer} instead.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class MongoIndexInitializer {
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+    private final TaskExecutor taskExecutor;
+
+    @Autowired
+    public MongoIndexInitializer(MongoTemplate mongoTemplate, MongoMappingContext mappingContext, TaskExecutor applicationTaskExecutor) {
+        this.mongoTemplate = mongoTemplate;
+        this.mappingContext = mappingContext;
+        this.taskExecutor = applicationTaskExecutor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        taskExecutor.execute(this::ensurePersonIndexes);
+    }
+
+    void ensurePersonIndexes() {
+        try {
+            IndexOperations indexOperations = mongoTemplate.indexOps(Person.class);
+            new MongoPersistentEntityIndexResolver(mappingContext)
+                    .resolveIndexFor(Person.class)
+                    .forEach(indexOperations::ensureIndex);
+            log.info("Ensured indexes for collection {}", mongoTemplate.getCollectionName(Person.class));
+        } catch (RuntimeException e) {
+            log.warn("Could not create indexes for persons: {}", e.getMessage());
+        }
+    }
+}
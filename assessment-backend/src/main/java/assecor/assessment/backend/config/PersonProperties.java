@@ -0,0 +1,121 @@
+package assecor.assessment.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "persons")
+public class PersonProperties {
+    private Csv csv = new Csv();
+    private Mongo mongo = new Mongo();
+    private Cache cache = new Cache();
+    private Sync sync = new Sync();
+
+    @Data
+    public static class Csv {
+        /**
+         * When appended rows are forced to the storage device.
+         */
+        private SyncPolicy syncPolicy = SyncPolicy.DATA;
+        /**
+         * How the whole file is parsed when the person snapshot is (re)built.
+         */
+        private LoaderMode loader = LoaderMode.STREAMING;
+        /**
+         * How the parsed persons are held in memory.
+         */
+        private SnapshotLayout layout = SnapshotLayout.ROWS;
+        /**
+         * Maximum number of appends waiting for the writer thread before callers block.
+         */
+        private int appendQueueCapacity = 1024;
+        /**
+         * Maximum number of appended rows written and synced together.
+         */
+        private int appendBatchSize = 256;
+    }
+
+    @Data
+    public static class Mongo {
+        /**
+         * Number of persons sent to MongoDB in one bulk write.
+         */
+        private int batchSize = 1000;
+        /**
+         * Number of person ids reserved from the counter document at a time.
+         */
+        private int idBlockSize = 100;
+        /**
+         * Number of threads writing the batches of a CSV import to MongoDB while the file is parsed.
+         */
+        private int importWriters = 4;
+        /**
+         * Maximum number of parsed batches of a CSV import waiting for a writer before parsing blocks.
+         */
+        private int importQueueCapacity = 8;
+        /**
+         * Largest CSV import accepted, as a request body or as a multipart file.
+         */
+        private DataSize importMaxSize = DataSize.ofMegabytes(100);
+    }
+
+    @Data
+    public static class Cache {
+        /**
+         * Maximum number of persons held by each lookup cache; a cached color list counts with its size.
+         */
+        private long maxPersons = 10_000;
+        /**
+         * How long a cached lookup is served before it is read from MongoDB again.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Sync {
+        /**
+         * When the CSV file is synchronized into MongoDB, as a cron expression; {@code -} only syncs on demand.
+         */
+        private String cron = "-";
+    }
+
+    public enum LoaderMode {
+        /**
+         * Read the file sequentially line by line.
+         */
+        STREAMING,
+        /**
+         * Memory-map the file and parse newline-aligned chunks in parallel.
+         */
+        PARALLEL
+    }
+
+    public enum SnapshotLayout {
+        /**
+         * One person object per row.
+         */
+        ROWS,
+        /**
+         * Primitive column arrays with dictionary-encoded names and cities.
+         */
+        COLUMNS
+    }
+
+    public enum SyncPolicy {
+        /**
+         * Force file content and metadata after every write.
+         */
+        ALWAYS,
+        /**
+         * Force file content after every write, metadata is left to the OS.
+         */
+        DATA,
+        /**
+         * Never force, rows become durable whenever the OS flushes its page cache.
+         */
+        NONE
+    }
+}
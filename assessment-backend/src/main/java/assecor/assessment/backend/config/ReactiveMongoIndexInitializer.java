@@ -0,0 +1,42 @@
+package assecor.assessment.backend.config;
+
+import assecor.assessment.backend.model.Person;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/**
+ * Reactive variant of {@link MongoIndexInitializer}, creating the indexes declared on {@link Person} through the
+ * reactive driver once the application is up.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveMongoIndexInitializer {
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+
+    @Autowired
+    public ReactiveMongoIndexInitializer(ReactiveMongoTemplate mongoTemplate, MongoMappingContext mappingContext) {
+        this.mongoTemplate = mongoTemplate;
+        this.mappingContext = mappingContext;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        ReactiveIndexOperations indexOperations = mongoTemplate.indexOps(Person.class);
+        Flux.fromIterable(new MongoPersistentEntityIndexResolver(mappingContext).resolveIndexFor(Person.class))
+                .concatMap(indexOperations::ensureIndex)
+                .subscribe(null,
+                        e -> log.warn("Could not create indexes for persons: {}", e.getMessage()),
+                        () -> log.info("Ensured indexes for collection {}", mongoTemplate.getCollectionName(Person.class)));
+    }
+}
@@ -1,34 +1,82 @@
 package assecor.assessment.backend.controller;
 
+import assecor.assessment.backend.cache.JsonResponse;
+import assecor.assessment.backend.dto.BatchResponse;
+import assecor.assessment.backend.dto.CacheStatsResponse;
+import assecor.assessment.backend.dto.ImportJobStatus;
+import assecor.assessment.backend.dto.PersonPage;
 import assecor.assessment.backend.dto.PersonRequest;
 import assecor.assessment.backend.dto.PersonResponse;
+import assecor.assessment.backend.dto.SyncResponse;
 import assecor.assessment.backend.service.FileService;
+import assecor.assessment.backend.service.PersonImportService;
 import assecor.assessment.backend.service.PersonService;
+import assecor.assessment.backend.service.PersonSyncService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class PersonController {
     private final FileService fileService;
     private final PersonService personService;
+    private final PersonImportService importService;
+    private final PersonSyncService syncService;
+    private final ObjectWriter personWriter;
+    private final ObjectReader personRequestReader;
 
     @Autowired
-    public PersonController(FileService fileService, PersonService personService) {
+    public PersonController(FileService fileService, PersonService personService, PersonImportService importService,
+                            PersonSyncService syncService, ObjectMapper objectMapper) {
         this.fileService = fileService;
         this.personService = personService;
+        this.importService = importService;
+        this.syncService = syncService;
+        this.personWriter = objectMapper.writerFor(PersonResponse.class);
+        this.personRequestReader = objectMapper.readerFor(PersonRequest.class);
     }
 
 
 //    REST for load and save file
 
     @GetMapping( value = "/persons", produces = "application/json")
-    public ResponseEntity<List<PersonResponse>> getAllPerson() {
-        return new ResponseEntity<>(fileService.getAllPerson(), HttpStatus.OK);
+    public ResponseEntity<byte[]> getAllPerson(@RequestHeader HttpHeaders headers) {
+        return cachedJson(fileService.getAllPersonJson(), headers);
+    }
+
+    @GetMapping(value = "/persons", params = "limit", produces = "application/json")
+    public ResponseEntity<PersonPage> getPersonPage(@RequestParam("limit") int limit,
+                                                    @RequestParam(value = "cursor", required = false) String cursor,
+                                                    @RequestParam(value = "total", defaultValue = "false") boolean total) {
+        return new ResponseEntity<>(fileService.getPersonPage(limit, cursor, total), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/persons/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAllPerson() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(writeNdjson(fileService::streamAllPerson));
     }
 
     @GetMapping(value = "/persons/{id}", produces = "application/json")
@@ -37,8 +85,47 @@ public class PersonController {
     }
 
     @GetMapping(value = "/persons/color/{color}", produces = "application/json")
-    public ResponseEntity<List<PersonResponse>> getPersonsByColor(@PathVariable("color") String color) {
-        return new ResponseEntity<>(fileService.getPersonsByColor(color), HttpStatus.OK);
+    public ResponseEntity<byte[]> getPersonsByColor(@PathVariable("color") String color, @RequestHeader HttpHeaders headers) {
+        return cachedJson(fileService.getPersonsByColorJson(color), headers);
+    }
+
+    @GetMapping(value = "/persons/zip", produces = "application/json")
+    public ResponseEntity<List<PersonResponse>> getPersonsByZipcode(@RequestParam(value = "from", required = false) Long from,
+                                                                    @RequestParam(value = "to", required = false) Long to,
+                                                                    @RequestParam(value = "prefix", required = false) String prefix) {
+        return new ResponseEntity<>(fileService.getPersonsByZipcode(from, to, prefix), HttpStatus.OK);
+    }
+
+    /**
+     * Persons matching all given criteria; {@code lastnamePrefix} matches the start of the lastname.
+     */
+    @GetMapping(value = "/persons/filter", produces = "application/json")
+    public ResponseEntity<List<PersonResponse>> filterPersons(@RequestParam(value = "color", required = false) String color,
+                                                              @RequestParam(value = "city", required = false) String city,
+                                                              @RequestParam(value = "zipFrom", required = false) Long zipFrom,
+                                                              @RequestParam(value = "zipTo", required = false) Long zipTo,
+                                                              @RequestParam(value = "zipPrefix", required = false) String zipPrefix,
+                                                              @RequestParam(value = "lastnamePrefix", required = false) String lastnamePrefix) {
+        return new ResponseEntity<>(fileService.filterPersons(color, city, zipFrom, zipTo, zipPrefix, lastnamePrefix), HttpStatus.OK);
+    }
+
+    /**
+     * Prefix and fuzzy search over lastnames and firstnames, ignoring case and diacritics; best matches first.
+     */
+    @GetMapping(value = "/persons/search", produces = "application/json")
+    public ResponseEntity<List<PersonResponse>> searchPersons(@RequestParam(value = "q", required = false) String query,
+                                                              @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return new ResponseEntity<>(fileService.searchPersons(query, limit), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/persons/color-counts", produces = "application/json")
+    public ResponseEntity<Map<String, Long>> countPersonsByColor() {
+        return new ResponseEntity<>(fileService.countPersonsByColor(), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/persons/cache", produces = "application/json")
+    public ResponseEntity<CacheStatsResponse> getCacheStats() {
+        return new ResponseEntity<>(fileService.getCacheStats(), HttpStatus.OK);
     }
 
     @PostMapping(value = "/persons", produces = "application/json")
@@ -53,6 +140,18 @@ public class PersonController {
         return new ResponseEntity<>(personService.getAllPersons(), HttpStatus.OK);
     }
 
+    @GetMapping(value = "api/persons", params = "limit", produces = "application/json")
+    public ResponseEntity<PersonPage> fetchPersonPage(@RequestParam("limit") int limit,
+                                                      @RequestParam(value = "cursor", required = false) String cursor,
+                                                      @RequestParam(value = "total", defaultValue = "false") boolean total) {
+        return new ResponseEntity<>(personService.getPersonPage(limit, cursor, total), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "api/persons/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAllPersons() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(writeNdjson(personService::streamAllPersons));
+    }
+
     @GetMapping(value = "api/persons/{id}", produces = "application/json")
     public ResponseEntity<PersonResponse> fetchPersonByID(@PathVariable("id") int id) {
         return new ResponseEntity<>(personService.getPersonByID(id), HttpStatus.OK);
@@ -63,9 +162,136 @@ public class PersonController {
         return new ResponseEntity<>(personService.fetchPersonByColor(color), HttpStatus.OK);
     }
 
+    @GetMapping(value = "api/persons/zip", produces = "application/json")
+    public ResponseEntity<List<PersonResponse>> fetchPersonsByZipcode(@RequestParam(value = "from", required = false) Long from,
+                                                                      @RequestParam(value = "to", required = false) Long to,
+                                                                      @RequestParam(value = "prefix", required = false) String prefix) {
+        return new ResponseEntity<>(personService.fetchPersonsByZipcode(from, to, prefix), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "api/persons/filter", produces = "application/json")
+    public ResponseEntity<List<PersonResponse>> fetchFilteredPersons(@RequestParam(value = "color", required = false) String color,
+                                                                     @RequestParam(value = "city", required = false) String city,
+                                                                     @RequestParam(value = "zipFrom", required = false) Long zipFrom,
+                                                                     @RequestParam(value = "zipTo", required = false) Long zipTo,
+                                                                     @RequestParam(value = "zipPrefix", required = false) String zipPrefix,
+                                                                     @RequestParam(value = "lastnamePrefix", required = false) String lastnamePrefix) {
+        return new ResponseEntity<>(personService.filterPersons(color, city, zipFrom, zipTo, zipPrefix, lastnamePrefix), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "api/persons/search", produces = "application/json")
+    public ResponseEntity<List<PersonResponse>> fetchSearchedPersons(@RequestParam(value = "q", required = false) String query,
+                                                                     @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return new ResponseEntity<>(personService.searchPersons(query, limit), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "api/persons/color-counts", produces = "application/json")
+    public ResponseEntity<Map<String, Long>> fetchPersonCountsByColor() {
+        return new ResponseEntity<>(personService.countPersonsByColor(), HttpStatus.OK);
+    }
+
     @PostMapping(value = "/api/persons", produces = "application/json")
     public ResponseEntity<String> addNewPerson( @RequestBody PersonRequest personRequest) {
         return new ResponseEntity<>(personService.createPerson(personRequest), HttpStatus.CREATED);
     }
 
+    /**
+     * Accepts a JSON array or newline-delimited JSON; the items are read one by one while they are inserted.
+     */
+    @PostMapping(value = "/api/persons/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE}, produces = "application/json")
+    public ResponseEntity<BatchResponse> addNewPersons(InputStream body) throws IOException {
+        try (MappingIterator<PersonRequest> personRequests = personRequestReader.readValues(body)) {
+            return new ResponseEntity<>(personService.createPersons(personRequests), HttpStatus.OK);
+        }
+    }
+
+    /**
+     * Imports the uploaded person CSV (form field {@code file}) and answers once it is stored; poll the returned
+     * location for the progress of parsing and writing it.
+     */
+    @PostMapping(value = "/api/persons/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = "application/json")
+    public ResponseEntity<ImportJobStatus> importPersons(@RequestParam("file") MultipartFile file) throws IOException {
+        return importAccepted(importService.startImport(file));
+    }
+
+    /**
+     * Same as the multipart upload for a request body that is the CSV itself.
+     */
+    @PostMapping(value = "/api/persons/import", consumes = "text/csv", produces = "application/json")
+    public ResponseEntity<ImportJobStatus> importPersons(InputStream body,
+                                                         @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength) throws IOException {
+        return importAccepted(importService.startImport(body, contentLength == null ? -1 : contentLength));
+    }
+
+    @GetMapping(value = "api/persons/import/{id}", produces = "application/json")
+    public ResponseEntity<ImportJobStatus> fetchImportStatus(@PathVariable("id") String id) {
+        return new ResponseEntity<>(importService.getImportStatus(id), HttpStatus.OK);
+    }
+
+    /**
+     * Synchronizes the CSV file into the database and reports what changed.
+     */
+    @PostMapping(value = "/api/persons/sync", produces = "application/json")
+    public ResponseEntity<SyncResponse> syncPersons() {
+        return new ResponseEntity<>(syncService.sync(), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "api/persons/sync", produces = "application/json")
+    public ResponseEntity<SyncResponse> fetchLastSync() {
+        return new ResponseEntity<>(syncService.getLastSync(), HttpStatus.OK);
+    }
+
+    private static ResponseEntity<ImportJobStatus> importAccepted(ImportJobStatus status) {
+        return ResponseEntity.accepted().location(URI.create("/api/persons/import/" + status.getId())).body(status);
+    }
+
+    /**
+     * Answers with 304 when the client already has the current version, otherwise with the cached
+     * body, gzip encoded if the client accepts it. Each encoding has its own strong ETag.
+     */
+    private ResponseEntity<byte[]> cachedJson(JsonResponse response, HttpHeaders requestHeaders) {
+        boolean gzip = acceptsGzip(requestHeaders.get(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? response.getGzipEtag() : response.getEtag();
+        if (matchesAny(requestHeaders.getIfNoneMatch(), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(response.gzip());
+        }
+        return builder.body(response.json());
+    }
+
+    private static boolean matchesAny(List<String> ifNoneMatch, String etag) {
+        String quoted = "\"" + etag + "\"";
+        return ifNoneMatch.stream()
+                .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                .anyMatch(tag -> tag.equals("*") || tag.equals(quoted));
+    }
+
+    private static boolean acceptsGzip(List<String> acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        return acceptEncoding.stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(coding -> coding.replace(" ", "").toLowerCase(Locale.ROOT))
+                .anyMatch(coding -> coding.equals("gzip") || coding.startsWith("gzip;") && !coding.matches("gzip;q=0(\\.0*)?"));
+    }
+
+    private StreamingResponseBody writeNdjson(Supplier<Stream<PersonResponse>> persons) {
+        return outputStream -> {
+            try (Stream<PersonResponse> stream = persons.get()) {
+                Iterator<PersonResponse> iterator = stream.iterator();
+                while (iterator.hasNext()) {
+                    outputStream.write(personWriter.writeValueAsBytes(iterator.next()));
+                    outputStream.write('\n');
+                }
+            }
+        };
+    }
+
 }
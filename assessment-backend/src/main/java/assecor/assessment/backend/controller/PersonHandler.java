@@ -0,0 +1,114 @@
+package assecor.assessment.backend.controller;
+
+import assecor.assessment.backend.dto.PersonRequest;
+import assecor.assessment.backend.dto.PersonResponse;
+import assecor.assessment.backend.exception.InvalidParamException;
+import assecor.assessment.backend.service.ReactivePersonService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * Handlers for the {@code /api/persons} routes of the reactive web application, see {@link PersonRouter}.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class PersonHandler {
+    private final ReactivePersonService personService;
+
+    @Autowired
+    public PersonHandler(ReactivePersonService personService) {
+        this.personService = personService;
+    }
+
+    public Mono<ServerResponse> fetchAllPersons(ServerRequest request) {
+        if (request.queryParam("limit").isPresent()) {
+            return fetchPersonPage(request);
+        }
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).body(personService.getAllPersons(), PersonResponse.class);
+    }
+
+    public Mono<ServerResponse> exportAllPersons(ServerRequest request) {
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON).body(personService.getAllPersons(), PersonResponse.class);
+    }
+
+    public Mono<ServerResponse> fetchPersonByID(ServerRequest request) {
+        return Mono.fromCallable(() -> parseInt("id", request.pathVariable("id")))
+                .flatMap(personService::getPersonByID)
+                .flatMap(person -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(person));
+    }
+
+    public Mono<ServerResponse> fetchPersonsByColor(ServerRequest request) {
+        return Mono.fromCallable(() -> personService.fetchPersonByColor(request.pathVariable("color")))
+                .flatMap(persons -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).body(persons, PersonResponse.class));
+    }
+
+    public Mono<ServerResponse> fetchPersonsByZipcode(ServerRequest request) {
+        return Mono.fromCallable(() -> personService.fetchPersonsByZipcode(
+                        parseLong("from", request.queryParam("from").orElse(null)),
+                        parseLong("to", request.queryParam("to").orElse(null)),
+                        request.queryParam("prefix").orElse(null)))
+                .flatMap(persons -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).body(persons, PersonResponse.class));
+    }
+
+    public Mono<ServerResponse> fetchFilteredPersons(ServerRequest request) {
+        return Mono.fromCallable(() -> personService.filterPersons(
+                        request.queryParam("color").orElse(null),
+                        request.queryParam("city").orElse(null),
+                        parseLong("zipFrom", request.queryParam("zipFrom").orElse(null)),
+                        parseLong("zipTo", request.queryParam("zipTo").orElse(null)),
+                        request.queryParam("zipPrefix").orElse(null),
+                        request.queryParam("lastnamePrefix").orElse(null)))
+                .flatMap(persons -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).body(persons, PersonResponse.class));
+    }
+
+    public Mono<ServerResponse> fetchSearchedPersons(ServerRequest request) {
+        return Mono.fromCallable(() -> personService.searchPersons(
+                        request.queryParam("q").orElse(null),
+                        parseInt("limit", request.queryParam("limit").orElse("20"))))
+                .flatMap(persons -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).body(persons, PersonResponse.class));
+    }
+
+    public Mono<ServerResponse> fetchPersonCountsByColor(ServerRequest request) {
+        return personService.countPersonsByColor()
+                .flatMap(counts -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(counts));
+    }
+
+    public Mono<ServerResponse> addNewPerson(ServerRequest request) {
+        return request.bodyToMono(PersonRequest.class)
+                .flatMap(personService::createPerson)
+                .flatMap(message -> ServerResponse.status(HttpStatus.CREATED).contentType(MediaType.APPLICATION_JSON).bodyValue(message));
+    }
+
+    private Mono<ServerResponse> fetchPersonPage(ServerRequest request) {
+        return Mono.fromCallable(() -> parseInt("limit", request.queryParam("limit").orElseThrow()))
+                .flatMap(limit -> personService.getPersonPage(limit,
+                        request.queryParam("cursor").orElse(null),
+                        Boolean.parseBoolean(request.queryParam("total").orElse("false"))))
+                .flatMap(page -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(page));
+    }
+
+    private static Long parseLong(String name, String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidParamException("Invalid " + name + ": " + value);
+        }
+    }
+
+    private static int parseInt(String name, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidParamException("Invalid " + name + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package assecor.assessment.backend.controller;
+
+import assecor.assessment.backend.exception.ColorNotFoundException;
+import assecor.assessment.backend.exception.EntityNotFoundException;
+import assecor.assessment.backend.exception.InvalidParamException;
+import assecor.assessment.backend.exception.InvalidRequestException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * Routes of the opt-in reactive mode ({@code spring.main.web-application-type=reactive}). They serve the MongoDB
+ * endpoints of {@link PersonController} non-blocking and map errors like {@link assecor.assessment.backend.exception.PersonExceptionHandler}.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class PersonRouter {
+
+    @Bean
+    public RouterFunction<ServerResponse> personRoutes(PersonHandler personHandler) {
+        return RouterFunctions.route()
+                .GET("/api/persons", personHandler::fetchAllPersons)
+                .GET("/api/persons/export", personHandler::exportAllPersons)
+                .GET("/api/persons/color-counts", personHandler::fetchPersonCountsByColor)
+                .GET("/api/persons/color/{color}", personHandler::fetchPersonsByColor)
+                .GET("/api/persons/zip", personHandler::fetchPersonsByZipcode)
+                .GET("/api/persons/filter", personHandler::fetchFilteredPersons)
+                .GET("/api/persons/search", personHandler::fetchSearchedPersons)
+                .GET("/api/persons/{id}", personHandler::fetchPersonByID)
+                .POST("/api/persons", personHandler::addNewPerson)
+                .onError(EntityNotFoundException.class, (e, request) -> errorResponse(e, HttpStatus.NOT_FOUND))
+                .onError(InvalidRequestException.class, (e, request) -> errorResponse(e, HttpStatus.BAD_REQUEST))
+                .onError(ColorNotFoundException.class, (e, request) -> errorResponse(e, HttpStatus.BAD_REQUEST))
+                .onError(InvalidParamException.class, (e, request) -> errorResponse(e, HttpStatus.BAD_REQUEST))
+                .onError(DuplicateKeyException.class, (e, request) -> ServerResponse.status(HttpStatus.CONFLICT)
+                        .contentType(MediaType.TEXT_PLAIN).bodyValue("Person already exists"))
+                .build();
+    }
+
+    private static Mono<ServerResponse> errorResponse(Throwable e, HttpStatus status) {
+        log.debug(e.getMessage(), e);
+        return ServerResponse.status(status).contentType(MediaType.TEXT_PLAIN).bodyValue(e.getMessage());
+    }
+}
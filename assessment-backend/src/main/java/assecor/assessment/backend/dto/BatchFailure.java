@@ -0,0 +1,15 @@
+package assecor.assessment.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchFailure {
+    private int index;
+    private String message;
+}
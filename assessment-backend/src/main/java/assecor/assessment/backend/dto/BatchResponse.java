@@ -0,0 +1,18 @@
+package assecor.assessment.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResponse {
+    private int received;
+    private int inserted;
+    private List<BatchFailure> failures;
+}
@@ -0,0 +1,20 @@
+package assecor.assessment.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsResponse {
+    private long version;
+    private int size;
+    private boolean stale;
+    private long hits;
+    private long staleReads;
+    private long misses;
+    private long reloads;
+}
@@ -0,0 +1,18 @@
+package assecor.assessment.backend.dto;
+
+import assecor.assessment.backend.model.Color;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ColorCount {
+    @Id
+    private Color color;
+    private long count;
+}
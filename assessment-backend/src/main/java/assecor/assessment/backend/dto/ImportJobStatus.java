@@ -0,0 +1,32 @@
+package assecor.assessment.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJobStatus {
+    private String id;
+    private State state;
+    private long parsed;
+    private long skipped;
+    private long inserted;
+    private long failed;
+    private List<BatchFailure> failures;
+    private String error;
+    private Instant startedAt;
+    private Instant finishedAt;
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,24 @@
+package assecor.assessment.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResponse {
+    private long csvRows;
+    private long unchanged;
+    private long inserted;
+    private long updated;
+    private long deleted;
+    private long conflicts;
+    private long failed;
+    private Instant startedAt;
+    private long durationMillis;
+}
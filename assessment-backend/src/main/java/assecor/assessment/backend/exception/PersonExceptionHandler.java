@@ -1,6 +1,8 @@
 package assecor.assessment.backend.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -8,6 +10,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 
 @Slf4j
 @ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class PersonExceptionHandler {
 
     @ExceptionHandler(EntityNotFoundException.class)
@@ -28,6 +31,24 @@ public class PersonExceptionHandler {
         return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(DuplicateKeyException.class)
+    public ResponseEntity<String> handleDuplicateKeyException(DuplicateKeyException e) {
+        log.debug(e.getMessage(), e);
+        return new ResponseEntity<>("Person already exists", HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(UploadTooLargeException.class)
+    public ResponseEntity<String> handleUploadTooLargeException(UploadTooLargeException e) {
+        log.debug(e.getMessage(), e);
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    @ExceptionHandler(TooManyImportsException.class)
+    public ResponseEntity<String> handleTooManyImportsException(TooManyImportsException e) {
+        log.debug(e.getMessage(), e);
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.TOO_MANY_REQUESTS);
+    }
+
     @ExceptionHandler(InvalidParamException.class)
     public ResponseEntity<String> handleInvalidParamException(InvalidParamException e) {
         log.debug(e.getMessage(), e);
@@ -0,0 +1,7 @@
+package assecor.assessment.backend.exception;
+
+public class TooManyImportsException extends RuntimeException {
+    public TooManyImportsException(String msg) {
+        super(msg);
+    }
+}
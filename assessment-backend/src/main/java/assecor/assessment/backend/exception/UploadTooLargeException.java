@@ -0,0 +1,7 @@
+package assecor.assessment.backend.exception;
+
+public class UploadTooLargeException extends RuntimeException {
+    public UploadTooLargeException(String msg) {
+        super(msg);
+    }
+}
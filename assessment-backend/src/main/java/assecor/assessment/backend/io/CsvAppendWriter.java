@@ -0,0 +1,247 @@
+package assecor.assessment.backend.io;
+
+import assecor.assessment.backend.config.BackgroundThreads;
+import assecor.assessment.backend.config.PersonProperties;
+import assecor.assessment.backend.model.Person;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single writer thread for CSV appends. Callers enqueue rows into a bounded queue and get a future;
+ * the writer drains whatever is pending, writes the rows of each file with one write call and forces
+ * them once (group commit), then completes the futures with the new file length. Rows are written in
+ * the order they were enqueued. The length range of the latest write to a file is published before the bytes
+ * are written and its {@link FileStamp} once they are synced, so that a file watcher can tell these appends
+ * from other changes. A write to a file that was changed by someone else since the previous write is not
+ * published, so the watcher does not mistake that change for an append.
+ * <p>
+ * Each file write is timed including the sync ({@code persons.csv.write}), and the rows per write,
+ * the bytes written and the failed rows are recorded.
+ */
+@Slf4j
+class CsvAppendWriter implements Closeable {
+    private static final byte[] LINE_END = {'\r', '\n'};
+
+    private final BlockingQueue<Append> queue;
+    private final int maxBatchSize;
+    private final PersonProperties.SyncPolicy syncPolicy;
+    private final Timer writeTimer;
+    private final DistributionSummary batchRows;
+    private final Counter bytesWritten;
+    private final Counter failedRows;
+    private final Thread thread;
+    private final ConcurrentMap<Path, OwnWrite> ownWrites = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    CsvAppendWriter(PersonProperties.Csv properties, BackgroundThreads threads, MeterRegistry meterRegistry) {
+        this.queue = new ArrayBlockingQueue<>(properties.getAppendQueueCapacity());
+        this.maxBatchSize = properties.getAppendBatchSize();
+        this.syncPolicy = properties.getSyncPolicy();
+        this.writeTimer = Timer.builder("persons.csv.write")
+                .description("Time to write and sync one batch of rows to a CSV file")
+                .tag("sync", syncPolicy.name())
+                .register(meterRegistry);
+        this.batchRows = DistributionSummary.builder("persons.csv.write.rows")
+                .description("Rows written to a CSV file per write")
+                .baseUnit("rows")
+                .register(meterRegistry);
+        this.bytesWritten = Counter.builder("persons.csv.write.bytes")
+                .description("Bytes appended to CSV files")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.failedRows = Counter.builder("persons.csv.write.failures")
+                .description("Rows that could not be written to a CSV file")
+                .baseUnit("rows")
+                .register(meterRegistry);
+        this.thread = threads.start("csv-writer", this::run);
+        Gauge.builder("persons.csv.write.queue", queue, BlockingQueue::size)
+                .description("Rows waiting for the CSV writer")
+                .baseUnit("rows")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Enqueues {@code person} to be appended to {@code path}, blocking while the queue is full.
+     * The future completes with the file length once the row is written and synced, and fails
+     * right away once the writer is closed.
+     */
+    CompletableFuture<Long> append(Path path, Person person) throws InterruptedException {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("CSV writer is closed"));
+        }
+        Append append = new Append(path, person, new CompletableFuture<>());
+        queue.put(append);
+        if (closed && queue.remove(append)) {
+            append.written.completeExceptionally(new IllegalStateException("CSV writer is closed"));
+        }
+        return append.written;
+    }
+
+    /**
+     * Whether {@code stamp} of the file at {@code path} is explained by the latest write of this writer: its
+     * length is within the range of a write in progress, or it is the stamp of the completed write.
+     */
+    boolean isOwnAppend(Path path, FileStamp stamp) {
+        OwnWrite write = ownWrites.get(path);
+        if (write == null) {
+            return false;
+        }
+        if (write.written == null) {
+            return stamp.length() > write.from && stamp.length() <= write.to;
+        }
+        return stamp.equals(write.written);
+    }
+
+    /**
+     * Stops the writer after the rows that are already queued have been written.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Append> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, maxBatchSize - 1);
+                writeBatch(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            while (queue.drainTo(batch, maxBatchSize) > 0) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<Append> batch) {
+        Map<Path, List<Append>> byPath = new LinkedHashMap<>();
+        for (Append append : batch) {
+            byPath.computeIfAbsent(append.path, path -> new ArrayList<>()).add(append);
+        }
+        byPath.forEach(this::writeRows);
+    }
+
+    private void writeRows(Path path, List<Append> appends) {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long position = channel.size();
+            ByteBuffer buffer = ByteBuffer.wrap(encodeCsvLines(appends, endsWithoutLineBreak(channel, position)));
+            int length = buffer.remaining();
+            boolean unchangedSinceOwnWrite = isUnchangedSinceOwnWrite(path);
+            if (unchangedSinceOwnWrite) {
+                ownWrites.put(path, new OwnWrite(position, position + length, null));
+            } else {
+                ownWrites.remove(path);
+            }
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            sync(channel);
+            if (unchangedSinceOwnWrite) {
+                ownWrites.put(path, new OwnWrite(position - length, position, FileStamp.of(path)));
+            }
+            writeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            bytesWritten.increment(length);
+            batchRows.record(appends.size());
+            for (Append append : appends) {
+                append.written.complete(position);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Error writing {} rows to CSV file {}: {}", appends.size(), path, e.getMessage(), e);
+            writeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            failedRows.increment(appends.size());
+            ownWrites.remove(path);
+            for (Append append : appends) {
+                append.written.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * True for the first write to a file and when the file still has the stamp of the previous write.
+     */
+    private boolean isUnchangedSinceOwnWrite(Path path) throws IOException {
+        OwnWrite previous = ownWrites.get(path);
+        return previous == null || previous.written != null && previous.written.equals(FileStamp.of(path));
+    }
+
+    private boolean endsWithoutLineBreak(FileChannel channel, long size) throws IOException {
+        if (size == 0) {
+            return false;
+        }
+        ByteBuffer lastByte = ByteBuffer.allocate(1);
+        channel.read(lastByte, size - 1);
+        return lastByte.get(0) != '\n';
+    }
+
+    private byte[] encodeCsvLines(List<Append> appends, boolean leadingLineBreak) {
+        ByteArrayOutputStream content = new ByteArrayOutputStream(appends.size() * 64);
+        if (leadingLineBreak) {
+            content.writeBytes(LINE_END);
+        }
+        for (Append append : appends) {
+            Person person = append.person;
+            int colorIndex = person.getColor().ordinal() + 1;
+            String line = String.join(",",
+                    person.getFirstname(),
+                    person.getLastname(),
+                    person.getZipcode() + " " + person.getCity(),
+                    String.valueOf(colorIndex));
+            content.writeBytes(line.getBytes(StandardCharsets.UTF_8));
+            content.writeBytes(LINE_END);
+        }
+        return content.toByteArray();
+    }
+
+    private void sync(FileChannel channel) throws IOException {
+        switch (syncPolicy) {
+            case ALWAYS -> channel.force(true);
+            case DATA -> channel.force(false);
+            case NONE -> {
+            }
+        }
+    }
+
+    /**
+     * A write that grows a file from {@code from} to {@code to} bytes; {@code written} is the stamp of the file
+     * once it is synced, {@code null} while it is in progress.
+     */
+    private record OwnWrite(long from, long to, FileStamp written) {
+    }
+
+    private record Append(Path path, Person person, CompletableFuture<Long> written) {
+    }
+}
@@ -0,0 +1,19 @@
+package assecor.assessment.backend.io;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Length and last modification time of a file. An edit that keeps the length still changes the stamp, unless it
+ * happens within the timestamp resolution of the file system.
+ */
+public record FileStamp(long length, long lastModifiedNanos) {
+
+    static FileStamp of(Path path) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return new FileStamp(attributes.size(), attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS));
+    }
+}
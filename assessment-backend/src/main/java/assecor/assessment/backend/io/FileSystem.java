@@ -1,121 +1,277 @@
 package assecor.assessment.backend.io;
 
-import assecor.assessment.backend.model.Color;
+import assecor.assessment.backend.config.BackgroundThreads;
+import assecor.assessment.backend.config.PersonProperties;
 import assecor.assessment.backend.model.Person;
-import com.opencsv.CSVReader;
-import com.opencsv.CSVWriter;
-import com.opencsv.exceptions.CsvException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ClassPathResource;
-import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
 import java.io.*;
+import java.nio.file.*;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+/**
+ * CSV file access. Loads are timed per loader ({@code persons.csv.load}) and count the rows read and
+ * skipped ({@code persons.csv.load.rows}); appends are timed from enqueueing until the row is synced
+ * ({@code persons.csv.append}, tagged with the outcome).
+ */
 @Slf4j
 @Component
 public class FileSystem {
+    private final PersonProperties.LoaderMode loaderMode;
+    private final ParallelCsvLoader parallelLoader;
+    private final CsvAppendWriter appendWriter;
+    private final BackgroundThreads threads;
+    private final MeterRegistry meterRegistry;
+    private final Timer loadTimer;
+    private final Counter rowsRead;
+    private final Counter rowsSkipped;
+
+    @Autowired
+    public FileSystem(PersonProperties properties, BackgroundThreads threads, MeterRegistry meterRegistry) {
+        this.loaderMode = properties.getCsv().getLoader();
+        this.parallelLoader = new ParallelCsvLoader(ForkJoinPool.commonPool(), ParallelCsvLoader.DEFAULT_CHUNK_SIZE);
+        this.appendWriter = new CsvAppendWriter(properties.getCsv(), threads, meterRegistry);
+        this.threads = threads;
+        this.meterRegistry = meterRegistry;
+        this.loadTimer = Timer.builder("persons.csv.load")
+                .description("Time to parse a CSV file")
+                .tag("loader", loaderMode.name())
+                .register(meterRegistry);
+        this.rowsRead = rowCounter("read");
+        this.rowsSkipped = rowCounter("skipped");
+    }
+
+    public FileSystem(PersonProperties properties) {
+        this(properties, BackgroundThreads.platform(), new SimpleMeterRegistry());
+    }
+
+    private Counter rowCounter(String result) {
+        return Counter.builder("persons.csv.load.rows")
+                .description("CSV lines parsed into persons or skipped as invalid")
+                .baseUnit("rows")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
 
     public List<Person> loadDataFromCsv(String filePath) {
-        Resource resource = new ClassPathResource(filePath);
-        List<Person> persons = new ArrayList<>();
-        int count = 1;
-        try (CSVReader reader = createCsvReader(resource)) {
-            List<String[]> lines = reader.readAll();
-            log.info("Loaded {} lines from {}", lines.size(), filePath);
-
-            for (String[] line : lines) {
-                if (isInvalidLine(line)) {
-                    log.warn("Skipping invalid data line: {}", Arrays.toString(line));
-                    continue;
-                }
+        LongAdder skipped = new LongAdder();
+        List<Person> loaded = loadTimer.record(() -> loaderMode == PersonProperties.LoaderMode.PARALLEL
+                ? loadDataFromCsvInParallel(filePath, skipped)
+                : loadDataFromCsvStreaming(filePath, skipped));
+        rowsRead.increment(loaded.size());
+        rowsSkipped.increment(skipped.sum());
+        log.info("Loaded {} persons from {}, skipped {} invalid lines", loaded.size(), filePath, skipped.sum());
+        return loaded;
+    }
 
-                Person person = createPersonFromCsvLine(count, line);
-                persons.add(person);
-                count++;
-            }
-        } catch (CsvException | IOException e) {
+    private List<Person> loadDataFromCsvStreaming(String filePath, LongAdder skipped) {
+        PersonCsvReader reader = openReader(filePath);
+        try {
+            List<Person> loaded = new ArrayList<>();
+            reader.forEachRemaining(loaded::add);
+            skipped.add(reader.getSkippedLines());
+            return loaded;
+        } finally {
+            closeQuietly(reader, filePath);
+        }
+    }
+
+    private List<Person> loadDataFromCsvInParallel(String filePath, LongAdder skipped) {
+        Path path;
+        try {
+            path = resolvePath(filePath);
+        } catch (IOException e) {
+            log.info("CSV file {} is not on the file system, falling back to the streaming loader", filePath);
+            return loadDataFromCsvStreaming(filePath, skipped);
+        }
+        try {
+            return parallelLoader.load(path, skipped);
+        } catch (IOException e) {
             log.error("Error reading CSV file: {}", filePath, e);
             throw new RuntimeException("Error reading CSV file", e);
         }
+    }
 
-        return persons;
+    /**
+     * Lazily parses the CSV file line by line. Only the current line is held in memory, ids are
+     * assigned in file order and invalid lines are skipped, exactly like {@link #loadDataFromCsv}.
+     * The returned stream holds the file open and must be closed.
+     */
+    public Stream<Person> streamDataFromCsv(String filePath) {
+        PersonCsvReader reader = openReader(filePath);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(reader, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> closeQuietly(reader, filePath));
     }
 
-    public boolean writeDataToCsv(String filePath, Person person) {
-        try {
-            List<String[]> lines = readCsvFile(filePath);
+    /**
+     * Lazily parses an uploaded person CSV with the same line format and validation as the CSV file. Lines
+     * whose zipcode or color cannot be parsed are skipped too, so that one bad line does not fail a whole
+     * upload; every skipped line is added to {@code skipped} as soon as it is read. Ids are assigned from 1
+     * in line order. Closing the returned stream closes {@code input}.
+     */
+    public Stream<Person> streamDataFromCsv(InputStream input, LongAdder skipped) {
+        PersonCsvReader reader = new PersonCsvReader(input, skipped);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(reader, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> closeQuietly(reader, "upload"));
+    }
 
-            appendPersonToCsv(lines, person);
+    private PersonCsvReader openReader(String filePath) {
+        try {
+            return new PersonCsvReader(new ClassPathResource(filePath).getInputStream());
+        } catch (IOException e) {
+            log.error("Error reading CSV file: {}", filePath, e);
+            throw new RuntimeException("Error reading CSV file", e);
+        }
+    }
 
-            writeCsvFile(filePath, lines);
+    /**
+     * Appends {@code person} as a new line at the end of the file and waits until it is synced.
+     */
+    public boolean writeDataToCsv(String filePath, Person person) {
+        try {
+            appendToCsv(filePath, person).join();
             return true;
-        } catch (IOException | CsvException e) {
-            log.error("Error writing data to CSV file: {}", e.getMessage(), e);
+        } catch (CompletionException e) {
+            log.error("Error writing data to CSV file: {}", e.getCause().getMessage());
             return false;
         }
     }
 
-    private CSVReader createCsvReader(Resource resource) throws IOException {
-        return new CSVReader(new InputStreamReader(resource.getInputStream()));
+    /**
+     * Hands {@code person} to the writer thread, which appends it as a new line together with other
+     * pending rows. The future completes with the file length once the row is synced, or exceptionally
+     * if it could not be written.
+     */
+    public CompletableFuture<Long> appendToCsv(String filePath, Person person) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CompletableFuture<Long> written;
+        try {
+            written = appendWriter.append(resolvePath(filePath), person);
+        } catch (IOException e) {
+            written = CompletableFuture.failedFuture(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            written = CompletableFuture.failedFuture(e);
+        }
+        return written.whenComplete((length, error) -> sample.stop(Timer.builder("persons.csv.append")
+                .description("Time from enqueueing a CSV row until it is synced")
+                .tag("outcome", error == null ? "success" : "failure")
+                .register(meterRegistry)));
     }
 
-    boolean isInvalidLine(String[] line) {
-        return line.length < 4 || line[0].trim().isEmpty() || line[1].trim().isEmpty() || !hasValidZipcodeAndCity(line[2]);
+    @PreDestroy
+    void stopWriter() {
+        appendWriter.close();
     }
 
-    private boolean hasValidZipcodeAndCity(String line) {
-        return line.trim().split(" ", 2).length == 2;
+    /**
+     * Returns the current size in bytes of the given classpath file, or -1 if it is not on the file system.
+     */
+    public long fileLength(String filePath) {
+        try {
+            return Files.size(resolvePath(filePath));
+        } catch (IOException e) {
+            return -1;
+        }
     }
 
-    private Person createPersonFromCsvLine(int id, String[] line) {
-        String[] zipcodeCity = line[2].trim().split(" ", 2);
+    /**
+     * Returns the current length and modification time of the given classpath file, or {@code null} if it is
+     * not on the file system.
+     */
+    public FileStamp fileStamp(String filePath) {
+        try {
+            return FileStamp.of(resolvePath(filePath));
+        } catch (IOException e) {
+            return null;
+        }
+    }
 
-        int colorCode = Integer.parseInt(line[3].trim());
-        Color color = Color.getColor(colorCode);
-        return new Person(
-                id,
-                line[1].trim(),
-                line[0].trim(),
-                Long.parseLong(zipcodeCity[0].trim()),
-                zipcodeCity[1].trim(),
-                color
-        );
+    /**
+     * Whether the given classpath file having {@code stamp} is the result of appends of this application,
+     * including one that is being written right now.
+     */
+    public boolean isOwnAppend(String filePath, FileStamp stamp) {
+        try {
+            return appendWriter.isOwnAppend(resolvePath(filePath), stamp);
+        } catch (IOException e) {
+            return false;
+        }
     }
 
-    private List<String[]> readCsvFile(String filePath) throws IOException, CsvException {
-        Resource resource = new ClassPathResource(filePath);
-        File inputFile = resource.getFile();
+    /**
+     * Watches the given classpath file for modifications and calls {@code onChange} whenever it changes.
+     * Returns {@code null} when the resource is not backed by a file on disk (e.g. packaged in a jar).
+     */
+    public Closeable watchFile(String filePath, Runnable onChange) {
+        Path path;
+        try {
+            path = resolvePath(filePath).toAbsolutePath();
+        } catch (IOException e) {
+            log.info("CSV file {} is not on the file system, changes will not be watched", filePath);
+            return null;
+        }
+
+        try {
+            WatchService watchService = path.getFileSystem().newWatchService();
+            path.getParent().register(watchService, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+            threads.start("csv-watcher", () -> watchLoop(watchService, path, onChange));
+            return watchService;
+        } catch (IOException e) {
+            log.error("Could not watch CSV file: {}", filePath, e);
+            return null;
+        }
+    }
 
-        try (CSVReader csvReader = new CSVReader(new FileReader(inputFile))) {
-            return csvReader.readAll();
+    private void watchLoop(WatchService watchService, Path path, Runnable onChange) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = key.pollEvents().stream()
+                        .anyMatch(event -> path.getFileName().equals(event.context()));
+                key.reset();
+                if (changed) {
+                    log.info("Detected change of {}", path);
+                    onChange.run();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            log.debug("Stopped watching {}", path);
         }
     }
 
-    private void appendPersonToCsv(List<String[]> lines, Person person) {
-        int colorIndex = person.getColor().ordinal() + 1;
-        String[] newLine = {
-                person.getLastname(),
-                person.getFirstname(),
-                person.getZipcode() + " " + person.getCity(),
-                String.valueOf(colorIndex)
-        };
-        lines.add(newLine);
+    private void closeQuietly(Closeable closeable, String filePath) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            log.warn("Could not close CSV file: {}", filePath, e);
+        }
     }
 
-    private void writeCsvFile(String filePath, List<String[]> lines) throws IOException {
-        Resource resource = new ClassPathResource(filePath);
-        File inputFile = resource.getFile();
+    boolean isInvalidLine(String[] line) {
+        return PersonLineParser.isInvalidLine(line);
+    }
 
-        try (CSVWriter writer = new CSVWriter(new FileWriter(inputFile),
-                CSVWriter.DEFAULT_SEPARATOR,
-                CSVWriter.NO_QUOTE_CHARACTER,
-                CSVWriter.DEFAULT_ESCAPE_CHARACTER,
-                CSVWriter.RFC4180_LINE_END)) {
-            writer.writeAll(lines);
-        }
+    private Path resolvePath(String filePath) throws IOException {
+        return new ClassPathResource(filePath).getFile().toPath();
     }
 }
@@ -0,0 +1,112 @@
+package assecor.assessment.backend.io;
+
+import assecor.assessment.backend.model.Person;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Loads a person CSV file by memory-mapping it, splitting it into chunks that start and end
+ * on line boundaries and parsing the mapped chunks in place, in parallel on a fork-join pool. The chunk results
+ * are merged in file order, so ids and skipped lines are the same as for the streaming reader.
+ */
+@Slf4j
+class ParallelCsvLoader {
+    static final long DEFAULT_CHUNK_SIZE = 8L * 1024 * 1024;
+    private static final long MAX_CHUNK_SIZE = Integer.MAX_VALUE;
+    private static final int SCAN_BUFFER_SIZE = 8 * 1024;
+
+    private final ForkJoinPool pool;
+    private final long chunkSize;
+
+    ParallelCsvLoader(ForkJoinPool pool, long chunkSize) {
+        this.pool = pool;
+        this.chunkSize = Math.min(chunkSize, MAX_CHUNK_SIZE);
+    }
+
+    List<Person> load(Path path) throws IOException {
+        return load(path, new LongAdder());
+    }
+
+    /**
+     * Loads the file and adds the number of skipped invalid lines to {@code skippedLines}.
+     */
+    List<Person> load(Path path, LongAdder skippedLines) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel);
+
+            List<ForkJoinTask<List<Person>>> tasks = new ArrayList<>(bounds.length - 1);
+            for (int i = 0; i < bounds.length - 1; i++) {
+                long start = bounds[i];
+                long end = bounds[i + 1];
+                tasks.add(pool.submit(() -> parseChunk(channel, start, end, skippedLines)));
+            }
+
+            List<Person> persons = new ArrayList<>();
+            int nextId = 1;
+            for (ForkJoinTask<List<Person>> task : tasks) {
+                for (Person person : task.join()) {
+                    person.setId(nextId++);
+                    persons.add(person);
+                }
+            }
+            log.info("Parsed {} in {} chunks", path, tasks.size());
+            return persons;
+        }
+    }
+
+    /**
+     * Splits the file into ranges of roughly {@code chunkSize} bytes, each ending right after a line break
+     * (or at the end of the file).
+     */
+    private long[] chunkBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        long start = 0;
+        while (start < size) {
+            long end = start + chunkSize >= size ? size : nextLineStart(channel, start + chunkSize, size);
+            bounds.add(end);
+            start = end;
+        }
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private List<Person> parseChunk(FileChannel channel, long start, long end, LongAdder skippedLines) {
+        List<Person> persons = new ArrayList<>();
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            PersonCsvReader reader = new PersonCsvReader(buffer);
+            reader.forEachRemaining(persons::add);
+            skippedLines.add(reader.getSkippedLines());
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading CSV file", e);
+        }
+        return persons;
+    }
+}
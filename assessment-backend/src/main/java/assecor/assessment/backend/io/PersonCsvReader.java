@@ -0,0 +1,184 @@
+package assecor.assessment.backend.io;
+
+import assecor.assessment.backend.model.Person;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Iterates the valid persons of a UTF-8 person CSV, either read incrementally from a stream or
+ * from a byte buffer that is already in memory, such as a mapped region of the file, which is parsed in place. Lines end at {@code \n}, {@code \r} or {@code \r\n}
+ * like {@link java.io.BufferedReader#readLine()}; ids are assigned from 1 in line order, skipping
+ * invalid lines. A lenient reader also skips lines whose zipcode or color cannot be parsed instead of
+ * failing, and counts every skipped line in a shared counter as it reads.
+ */
+@Slf4j
+class PersonCsvReader implements Iterator<Person>, Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream input;
+    private final PersonLineParser parser = new PersonLineParser();
+    private final LongAdder skippedCounter;
+    private byte[] array;
+    private ByteBuffer buffer;
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+    private boolean skipLineFeed;
+    private int nextId = 1;
+    private long skippedLines;
+    private Person next;
+
+    PersonCsvReader(InputStream input) {
+        this(input, null);
+    }
+
+    /**
+     * Lenient reader that adds each skipped line to {@code skippedCounter} unless it is {@code null}.
+     */
+    PersonCsvReader(InputStream input, LongAdder skippedCounter) {
+        this.input = input;
+        this.array = new byte[BUFFER_SIZE];
+        this.buffer = ByteBuffer.wrap(array);
+        this.skippedCounter = skippedCounter;
+    }
+
+    /**
+     * Reads the bytes between the position and the limit of {@code content}, using absolute indexes only.
+     */
+    PersonCsvReader(ByteBuffer content) {
+        this.input = null;
+        this.skippedCounter = null;
+        this.buffer = content;
+        this.position = content.position();
+        this.limit = content.limit();
+        this.endOfInput = true;
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (next == null) {
+                if (!readLine()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading CSV file", e);
+        }
+    }
+
+    @Override
+    public Person next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Person person = next;
+        next = null;
+        return person;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (input != null) {
+            input.close();
+        }
+    }
+
+    /**
+     * Parses the next line into {@link #next} (left {@code null} for an invalid line).
+     * Returns {@code false} once the input is exhausted.
+     */
+    private boolean readLine() throws IOException {
+        int scanned = 0;
+        while (true) {
+            if (skipLineFeed && position < limit) {
+                skipLineFeed = false;
+                if (buffer.get(position) == '\n') {
+                    position++;
+                }
+            }
+            for (int i = position + scanned; i < limit; i++) {
+                byte b = buffer.get(i);
+                if (b == '\n' || b == '\r') {
+                    parseLine(position, i);
+                    position = i + 1;
+                    skipLineFeed = b == '\r';
+                    return true;
+                }
+            }
+            scanned = limit - position;
+            if (!fill()) {
+                if (position == limit) {
+                    return false;
+                }
+                parseLine(position, limit);
+                position = limit;
+                return true;
+            }
+        }
+    }
+
+    private void parseLine(int from, int to) {
+        Person person;
+        if (skippedCounter == null) {
+            person = parser.parse(buffer, from, to, nextId);
+        } else {
+            try {
+                person = parser.parse(buffer, from, to, nextId);
+            } catch (RuntimeException e) {
+                log.warn("Skipping unparsable data line {}: {}", nextId + skippedLines, e.getMessage());
+                person = null;
+            }
+        }
+        if (person != null) {
+            nextId++;
+            next = person;
+        } else {
+            skippedLines++;
+            if (skippedCounter != null) {
+                skippedCounter.increment();
+            }
+        }
+    }
+
+    /**
+     * Number of invalid lines skipped so far.
+     */
+    long getSkippedLines() {
+        return skippedLines;
+    }
+
+    /**
+     * Reads more input after the unconsumed bytes, compacting or growing the buffer as needed.
+     */
+    private boolean fill() throws IOException {
+        if (endOfInput) {
+            return false;
+        }
+        int unconsumed = limit - position;
+        if (position > 0) {
+            System.arraycopy(array, position, array, 0, unconsumed);
+            position = 0;
+            limit = unconsumed;
+        } else if (limit == array.length) {
+            array = Arrays.copyOf(array, array.length * 2);
+            buffer = ByteBuffer.wrap(array);
+        }
+        int read = input.read(array, limit, array.length - limit);
+        if (read < 0) {
+            endOfInput = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+}
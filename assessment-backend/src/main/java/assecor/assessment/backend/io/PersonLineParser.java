@@ -0,0 +1,209 @@
+package assecor.assessment.backend.io;
+
+import assecor.assessment.backend.model.Color;
+import assecor.assessment.backend.model.Person;
+import com.opencsv.CSVParser;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Parses one UTF-8 encoded line of the person format ({@code lastname, firstname, zip city, colorId})
+ * straight from a byte buffer, which may be a heap buffer or a mapped region of the file. Fields are located
+ * by absolute index, numbers are accumulated from the digits and only the three name/city strings are
+ * allocated per row.
+ * <p>
+ * The outcome is the same as splitting the line with opencsv and applying {@link #isInvalidLine} and
+ * {@link #createPerson}: lines containing quotes or escape characters are handed to opencsv, and numbers
+ * that are not plain digits are passed to {@link Long#parseLong}/{@link Integer#parseInt} so that the
+ * same values or exceptions result. Instances keep scratch state and are not thread-safe.
+ */
+@Slf4j
+class PersonLineParser {
+    private static final int MIN_FIELDS = 4;
+    private static final int MAX_LONG_DIGITS = 18;
+    private static final int MAX_INT_DIGITS = 9;
+
+    private final int[] fieldStarts = new int[MIN_FIELDS];
+    private final int[] fieldEnds = new int[MIN_FIELDS];
+    private CSVParser csvParser;
+
+    /**
+     * Returns the person encoded in {@code line[from, to)} (without line terminator), or {@code null}
+     * if the line is invalid.
+     */
+    Person parse(ByteBuffer line, int from, int to, int id) {
+        if (needsCsvParser(line, from, to)) {
+            return parseWithCsvParser(decode(line, from, to), id);
+        }
+
+        int fields = 0;
+        int fieldStart = from;
+        for (int i = from; i <= to && fields < MIN_FIELDS; i++) {
+            if (i == to || line.get(i) == ',') {
+                fieldStarts[fields] = fieldStart;
+                fieldEnds[fields] = i;
+                fields++;
+                fieldStart = i + 1;
+            }
+        }
+        if (fields < MIN_FIELDS) {
+            return invalid(line, from, to);
+        }
+
+        int firstStart = trimStart(line, fieldStarts[0], fieldEnds[0]);
+        int firstEnd = trimEnd(line, firstStart, fieldEnds[0]);
+        int lastStart = trimStart(line, fieldStarts[1], fieldEnds[1]);
+        int lastEnd = trimEnd(line, lastStart, fieldEnds[1]);
+        int zipCityStart = trimStart(line, fieldStarts[2], fieldEnds[2]);
+        int zipCityEnd = trimEnd(line, zipCityStart, fieldEnds[2]);
+        int space = indexOf(line, zipCityStart, zipCityEnd, (byte) ' ');
+        if (firstStart == firstEnd || lastStart == lastEnd || space < 0) {
+            return invalid(line, from, to);
+        }
+
+        int colorStart = trimStart(line, fieldStarts[3], fieldEnds[3]);
+        Color color = Color.getColor(parseInt(line, colorStart, trimEnd(line, colorStart, fieldEnds[3])));
+        int zipStart = trimStart(line, zipCityStart, space);
+        long zipcode = parseLong(line, zipStart, trimEnd(line, zipStart, space));
+        int cityStart = trimStart(line, space + 1, zipCityEnd);
+
+        return new Person(
+                id,
+                decode(line, lastStart, lastEnd),
+                decode(line, firstStart, firstEnd),
+                zipcode,
+                decode(line, cityStart, trimEnd(line, cityStart, zipCityEnd)),
+                color
+        );
+    }
+
+    static boolean isInvalidLine(String[] line) {
+        return line.length < 4 || line[0].trim().isEmpty() || line[1].trim().isEmpty() || !hasValidZipcodeAndCity(line[2]);
+    }
+
+    static Person createPerson(int id, String[] line) {
+        String[] zipcodeCity = line[2].trim().split(" ", 2);
+
+        int colorCode = Integer.parseInt(line[3].trim());
+        Color color = Color.getColor(colorCode);
+        return new Person(
+                id,
+                line[1].trim(),
+                line[0].trim(),
+                Long.parseLong(zipcodeCity[0].trim()),
+                zipcodeCity[1].trim(),
+                color
+        );
+    }
+
+    private static boolean hasValidZipcodeAndCity(String line) {
+        return line.trim().split(" ", 2).length == 2;
+    }
+
+    private Person parseWithCsvParser(String text, int id) {
+        if (csvParser == null) {
+            csvParser = new CSVParser();
+        }
+        String[] line;
+        try {
+            line = csvParser.parseLine(text);
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading CSV file", e);
+        }
+        if (isInvalidLine(line)) {
+            log.warn("Skipping invalid data line: {}", Arrays.toString(line));
+            return null;
+        }
+        return createPerson(id, line);
+    }
+
+    private static boolean needsCsvParser(ByteBuffer line, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (line.get(i) == CSVParser.DEFAULT_QUOTE_CHARACTER || line.get(i) == CSVParser.DEFAULT_ESCAPE_CHARACTER) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Person invalid(ByteBuffer line, int from, int to) {
+        if (log.isWarnEnabled()) {
+            log.warn("Skipping invalid data line: {}", decode(line, from, to));
+        }
+        return null;
+    }
+
+    /**
+     * Same characters as {@link String#trim()}: everything up to and including the space character.
+     * Bytes of multi-byte UTF-8 sequences are all above 0x7F, so trimming bytes equals trimming chars.
+     */
+    private static boolean isTrimmed(byte b) {
+        return (b & 0xFF) <= ' ';
+    }
+
+    private static int trimStart(ByteBuffer line, int from, int to) {
+        while (from < to && isTrimmed(line.get(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    private static int trimEnd(ByteBuffer line, int from, int to) {
+        while (to > from && isTrimmed(line.get(to - 1))) {
+            to--;
+        }
+        return to;
+    }
+
+    private static int indexOf(ByteBuffer line, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (line.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String decode(ByteBuffer line, int from, int to) {
+        if (line.hasArray()) {
+            return new String(line.array(), line.arrayOffset() + from, to - from, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[to - from];
+        line.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long parseLong(ByteBuffer line, int from, int to) {
+        if (to - from == 0 || to - from > MAX_LONG_DIGITS) {
+            return Long.parseLong(decode(line, from, to));
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = line.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.parseLong(decode(line, from, to));
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int parseInt(ByteBuffer line, int from, int to) {
+        if (to - from == 0 || to - from > MAX_INT_DIGITS) {
+            return Integer.parseInt(decode(line, from, to));
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = line.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Integer.parseInt(decode(line, from, to));
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
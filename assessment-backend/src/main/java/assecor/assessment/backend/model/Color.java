@@ -10,6 +10,14 @@ public enum Color {
     gelb(5),
     tuerkis(6),
     weiss(7);
+    private static final Color[] BY_ID = new Color[values().length + 1];
+
+    static {
+        for (Color color : values()) {
+            BY_ID[color.colorID] = color;
+        }
+    }
+
     private final int colorID;
 
     Color(int colorID) {
@@ -17,10 +25,8 @@ public enum Color {
     }
 
     public static Color getColor(int colorID) {
-        for (Color color : Color.values()) {
-            if (color.colorID == colorID) {
-                return color;
-            }
+        if (colorID >= 0 && colorID < BY_ID.length && BY_ID[colorID] != null) {
+            return BY_ID[colorID];
         }
         throw new ColorNotFoundException("Color ID " + colorID + " not found");
     }
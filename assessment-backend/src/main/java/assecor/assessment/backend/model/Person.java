@@ -6,10 +6,18 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 
 @Document(collection = "person")
+@CompoundIndexes({
+        @CompoundIndex(name = "zipcode_id", def = "{ 'zipcode': 1, '_id': 1 }"),
+        @CompoundIndex(name = "color_city_filter", def = "{ 'color': 1, 'city': 1, 'zipcode': 1, 'lastname': 1, 'firstname': 1, '_id': 1 }"),
+        @CompoundIndex(name = "lastname_filter", def = "{ 'lastname': 1, 'color': 1, 'city': 1, 'zipcode': 1, 'firstname': 1, '_id': 1 }"),
+        @CompoundIndex(name = "csv_id", def = "{ 'csvId': 1 }", unique = true, sparse = true)
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -0,0 +1,52 @@
+package assecor.assessment.backend.repository;
+
+import assecor.assessment.backend.util.PersonFilter;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Translates a {@link PersonFilter} into a single MongoDB query, shared by the blocking and the reactive service.
+ * <p>
+ * The query carries no index hint: MongoDB's planner races the candidate indexes on the actual criteria and picks
+ * the most selective one, and a query still runs, if slower, while the indexes declared on
+ * {@link assecor.assessment.backend.model.Person} do not exist yet. {@code color_city_filter} and
+ * {@code lastname_filter} contain every field of a person, so queries answered from them are covered and no
+ * document is fetched. The lastname prefix is a plain anchored regex, which MongoDB turns into a range scan.
+ */
+public final class PersonFilterQuery {
+    private static final String REGEX_METACHARACTERS = "\\^$.|?*+()[]{}";
+
+    private PersonFilterQuery() {
+    }
+
+    public static Query of(PersonFilter filter) {
+        Query query = new Query();
+        if (filter.color() != null) {
+            query.addCriteria(Criteria.where("color").is(filter.color()));
+        }
+        if (filter.city() != null) {
+            query.addCriteria(Criteria.where("city").is(filter.city()));
+        }
+        if (filter.zipcodes() != null) {
+            query.addCriteria(Criteria.where("zipcode").gte(filter.zipcodes().from()).lte(filter.zipcodes().to()));
+        }
+        if (filter.lastnamePrefix() != null) {
+            query.addCriteria(Criteria.where("lastname").regex("^" + escapeRegex(filter.lastnamePrefix())));
+        }
+        query.fields().include("lastname", "firstname", "zipcode", "city", "color");
+        return query.with(Sort.by("_id"));
+    }
+
+    static String escapeRegex(String literal) {
+        StringBuilder escaped = new StringBuilder(literal.length() + 8);
+        for (int i = 0; i < literal.length(); i++) {
+            char c = literal.charAt(i);
+            if (REGEX_METACHARACTERS.indexOf(c) >= 0) {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
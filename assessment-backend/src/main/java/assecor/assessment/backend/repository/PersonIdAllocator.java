@@ -0,0 +1,126 @@
+package assecor.assessment.backend.repository;
+
+import assecor.assessment.backend.config.PersonProperties;
+import assecor.assessment.backend.model.Person;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out person ids from blocks reserved on a counter document ({@code counters/person}) with an
+ * atomic {@code $inc}. Within a block ids come from an {@link AtomicLong}, so only every
+ * {@code persons.mongo.id-block-size}-th id costs a round trip. Ids of a block that is not used up
+ * before shutdown are skipped, they are never handed out twice.
+ * <p>
+ * On first use the counter is raised to the highest existing person id, so collections filled
+ * before the counter existed keep working. The round trips happen under a {@link ReentrantLock}
+ * rather than a monitor, so waiting virtual threads do not pin their carrier. The reactive web stack uses
+ * {@link ReactivePersonIdAllocator} on the same counter instead.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PersonIdAllocator {
+    static final String COUNTERS_COLLECTION = "counters";
+    static final String PERSON_COUNTER = "person";
+    static final String SEQUENCE_FIELD = "seq";
+
+    private final MongoTemplate mongoTemplate;
+    private final int blockSize;
+    private final ReentrantLock reserveLock = new ReentrantLock();
+    private volatile Block block = new Block(1, 0);
+    private volatile boolean seeded;
+
+    @Autowired
+    public PersonIdAllocator(MongoTemplate mongoTemplate, PersonProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.blockSize = Math.max(1, properties.getMongo().getIdBlockSize());
+    }
+
+    public int nextId() {
+        while (true) {
+            Block current = block;
+            long id = current.next.getAndIncrement();
+            if (id <= current.last) {
+                return toId(id);
+            }
+            reserveLock.lock();
+            try {
+                if (block == current) {
+                    long first = reserveRange(blockSize);
+                    block = new Block(first, first + blockSize - 1);
+                }
+            } finally {
+                reserveLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Reserves {@code count} consecutive ids in one round trip and returns the first of them.
+     */
+    public int reserve(int count) {
+        long first = reserveRange(count);
+        toId(first + count - 1);
+        return toId(first);
+    }
+
+    private long reserveRange(int count) {
+        ensureSeeded();
+        Document counter = mongoTemplate.findAndModify(
+                counterQuery(),
+                new Update().inc(SEQUENCE_FIELD, count),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                Document.class,
+                COUNTERS_COLLECTION);
+        long last = ((Number) counter.get(SEQUENCE_FIELD)).longValue();
+        return last - count + 1;
+    }
+
+    private void ensureSeeded() {
+        if (seeded) {
+            return;
+        }
+        reserveLock.lock();
+        try {
+            if (!seeded) {
+                Person highest = mongoTemplate.findOne(new Query().with(Sort.by(Sort.Direction.DESC, "_id")).limit(1), Person.class);
+                long highestId = highest == null ? 0 : highest.getId();
+                mongoTemplate.upsert(counterQuery(), new Update().max(SEQUENCE_FIELD, highestId), COUNTERS_COLLECTION);
+                seeded = true;
+            }
+        } finally {
+            reserveLock.unlock();
+        }
+    }
+
+    private static Query counterQuery() {
+        return Query.query(Criteria.where("_id").is(PERSON_COUNTER));
+    }
+
+    private static int toId(long id) {
+        if (id > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Person ids exhausted");
+        }
+        return (int) id;
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long last;
+
+        private Block(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+    }
+}
@@ -1,13 +1,35 @@
 package assecor.assessment.backend.repository;
 
+import assecor.assessment.backend.dto.ColorCount;
 import assecor.assessment.backend.dto.PersonResponse;
 import assecor.assessment.backend.model.Color;
 import assecor.assessment.backend.model.Person;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface PersonRepository extends MongoRepository<Person, Integer> {
 
     List<PersonResponse> findAllByColor(Color color);
+
+    List<Person> findByIdGreaterThanOrderByIdAsc(Integer id, Limit limit);
+
+    /**
+     * Inclusive zipcode range, answered from the {@code zipcode_id} index in index order.
+     */
+    @Query(value = "{ 'zipcode': { $gte: ?0, $lte: ?1 } }", sort = "{ 'zipcode': 1, '_id': 1 }")
+    List<PersonResponse> findAllByZipcodeRange(long from, long to);
+
+    /**
+     * Iterates the whole collection through a server-side cursor; the stream must be closed.
+     */
+    @Query(value = "{}", sort = "{ '_id': 1 }")
+    Stream<Person> streamAllBy();
+
+    @Aggregation(pipeline = "{ $group: { _id: '$color', count: { $sum: 1 } } }")
+    List<ColorCount> countPersonsByColor();
 }
@@ -0,0 +1,98 @@
+package assecor.assessment.backend.repository;
+
+import assecor.assessment.backend.config.PersonProperties;
+import assecor.assessment.backend.model.Person;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Non-blocking counterpart of {@link PersonIdAllocator}, reserving blocks on the same counter document with
+ * {@link ReactiveMongoTemplate#findAndModify}. Callers that find the block used up reserve a new one each instead
+ * of waiting for each other; only one of the new blocks is kept, the others hand out their first id and the rest
+ * of them is skipped.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePersonIdAllocator {
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final int blockSize;
+    private final AtomicReference<Block> block = new AtomicReference<>(new Block(1, 0));
+    private final Mono<Void> seeded;
+
+    @Autowired
+    public ReactivePersonIdAllocator(ReactiveMongoTemplate mongoTemplate, PersonProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.blockSize = Math.max(1, properties.getMongo().getIdBlockSize());
+        this.seeded = Mono.defer(this::seed).cache(done -> Duration.ofMillis(Long.MAX_VALUE), e -> Duration.ZERO, () -> Duration.ofMillis(Long.MAX_VALUE));
+    }
+
+    public Mono<Integer> nextId() {
+        return Mono.defer(() -> {
+            Block current = block.get();
+            long id = current.next.getAndIncrement();
+            if (id <= current.last) {
+                return Mono.fromCallable(() -> toId(id));
+            }
+            return reserveRange(blockSize).map(first -> {
+                block.compareAndSet(current, new Block(first + 1, first + blockSize - 1));
+                return toId(first);
+            });
+        });
+    }
+
+    private Mono<Long> reserveRange(int count) {
+        return seeded.then(mongoTemplate.findAndModify(
+                        counterQuery(),
+                        new Update().inc(PersonIdAllocator.SEQUENCE_FIELD, count),
+                        FindAndModifyOptions.options().upsert(true).returnNew(true),
+                        Document.class,
+                        PersonIdAllocator.COUNTERS_COLLECTION))
+                .map(counter -> ((Number) counter.get(PersonIdAllocator.SEQUENCE_FIELD)).longValue() - count + 1);
+    }
+
+    /**
+     * Raises the counter to the highest existing person id, once; a failed attempt is repeated by the next caller.
+     */
+    private Mono<Void> seed() {
+        return mongoTemplate.findOne(new Query().with(Sort.by(Sort.Direction.DESC, "_id")).limit(1), Person.class)
+                .map(highest -> (long) highest.getId())
+                .defaultIfEmpty(0L)
+                .flatMap(highestId -> mongoTemplate.upsert(counterQuery(), new Update().max(PersonIdAllocator.SEQUENCE_FIELD, highestId),
+                        PersonIdAllocator.COUNTERS_COLLECTION))
+                .then();
+    }
+
+    private static Query counterQuery() {
+        return Query.query(Criteria.where("_id").is(PersonIdAllocator.PERSON_COUNTER));
+    }
+
+    private static int toId(long id) {
+        if (id > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Person ids exhausted");
+        }
+        return (int) id;
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long last;
+
+        private Block(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package assecor.assessment.backend.repository;
+
+import assecor.assessment.backend.dto.ColorCount;
+import assecor.assessment.backend.dto.PersonResponse;
+import assecor.assessment.backend.model.Color;
+import assecor.assessment.backend.model.Person;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking counterpart of {@link PersonRepository}, used when the application runs as a reactive web application.
+ */
+public interface ReactivePersonRepository extends ReactiveMongoRepository<Person, Integer> {
+
+    Flux<PersonResponse> findAllByColor(Color color);
+
+    Flux<Person> findByIdGreaterThanOrderByIdAsc(Integer id, Limit limit);
+
+    @Query(value = "{ 'zipcode': { $gte: ?0, $lte: ?1 } }", sort = "{ 'zipcode': 1, '_id': 1 }")
+    Flux<PersonResponse> findAllByZipcodeRange(long from, long to);
+
+    @Query(value = "{}", sort = "{ '_id': 1 }")
+    Flux<Person> findAllOrderedById();
+
+    @Aggregation(pipeline = "{ $group: { _id: '$color', count: { $sum: 1 } } }")
+    Flux<ColorCount> countPersonsByColor();
+}
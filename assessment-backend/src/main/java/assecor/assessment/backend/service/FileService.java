@@ -1,64 +1,338 @@
 package assecor.assessment.backend.service;
 
+import assecor.assessment.backend.cache.ColumnarPersonSnapshot;
+import assecor.assessment.backend.cache.JsonResponse;
+import assecor.assessment.backend.cache.JsonResponseCache;
+import assecor.assessment.backend.cache.PersonSnapshot;
+import assecor.assessment.backend.cache.RowPersonSnapshot;
+import assecor.assessment.backend.config.PersonProperties;
+import assecor.assessment.backend.dto.CacheStatsResponse;
+import assecor.assessment.backend.dto.PersonPage;
 import assecor.assessment.backend.dto.PersonRequest;
 import assecor.assessment.backend.dto.PersonResponse;
 import assecor.assessment.backend.exception.EntityNotFoundException;
+import assecor.assessment.backend.io.FileStamp;
 import assecor.assessment.backend.io.FileSystem;
 import assecor.assessment.backend.model.Color;
 import assecor.assessment.backend.model.Person;
+import assecor.assessment.backend.util.PersonFilter;
 import assecor.assessment.backend.util.PersonUtil;
+import assecor.assessment.backend.util.ZipcodeRange;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class FileService {
+    public static final String CSV_FILE = "static/sample-input.csv";
 
 
     private FileSystem fileSystem;
-    private final String filePath = "static/sample-input.csv";
+    private JsonResponseCache responseCache;
+    private PersonProperties.SnapshotLayout layout;
+    private final String filePath = CSV_FILE;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleReads = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicReference<FileStamp> knownFileStamp = new AtomicReference<>();
+    private final AtomicReference<PersonSnapshot> snapshot = new AtomicReference<>();
+    private CompletableFuture<Long> lastAppend = CompletableFuture.completedFuture(-1L);
+    private int lastAssignedId;
+    private Closeable watcher;
 
     @Autowired
-    public FileService(FileSystem fileSystem) {
+    public FileService(FileSystem fileSystem, JsonResponseCache responseCache, PersonProperties properties) {
         this.fileSystem = fileSystem;
+        this.responseCache = responseCache;
+        this.layout = properties.getCsv().getLayout();
+    }
+
+    @PostConstruct
+    void startWatching() {
+        watcher = fileSystem.watchFile(filePath, this::onFileChanged);
+    }
+
+    @PreDestroy
+    void stopWatching() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+        }
     }
 
     public List<PersonResponse> getAllPerson() {
-        List<Person> persons = fileSystem.loadDataFromCsv(filePath);
-        log.info("Loaded {} persons", persons.size());
-        return persons.stream().map(PersonUtil::convertToDto).collect(Collectors.toList());
+        return snapshot().getPersons();
+    }
+
+    /**
+     * Same content as {@link #getAllPerson()}, serialized once per snapshot version.
+     */
+    public JsonResponse getAllPersonJson() {
+        PersonSnapshot current = snapshot();
+        return responseCache.get("persons", current.getVersion(), current::getPersons);
+    }
+
+    public PersonPage getPersonPage(int limit, String cursor, boolean includeTotal) {
+        PersonUtil.validatePageSize(limit);
+        int afterId = PersonUtil.parseCursor(cursor);
+        PersonSnapshot current = snapshot();
+
+        List<PersonResponse> persons = current.findAfter(afterId, limit);
+        String nextCursor = null;
+        if (!persons.isEmpty() && persons.get(persons.size() - 1).getId() < current.size()) {
+            nextCursor = String.valueOf(persons.get(persons.size() - 1).getId());
+        }
+        return PersonPage.builder()
+                .persons(persons)
+                .nextCursor(nextCursor)
+                .total(includeTotal ? (long) current.size() : null)
+                .build();
+    }
+
+    /**
+     * Streams all persons of the current snapshot without collecting the converted rows.
+     */
+    public Stream<PersonResponse> streamAllPerson() {
+        return snapshot().getPersons().stream();
     }
 
     public PersonResponse getPersonById(int id) {
-        return fileSystem.loadDataFromCsv(filePath).stream().filter(person -> person.getId() == id).map(PersonUtil::convertToDto).findFirst().orElseThrow(() -> new EntityNotFoundException(String.format("Could not find person with id %d", id)));
+        PersonResponse person = snapshot().findById(id);
+        if (person == null) {
+            throw new EntityNotFoundException(String.format("Could not find person with id %d", id));
+        }
+        return person;
     }
 
     public List<PersonResponse> getPersonsByColor(String color) {
         Color parsedColor = PersonUtil.parseColor(color);
-        List<PersonResponse> response = fileSystem.loadDataFromCsv(filePath).stream().filter(person -> person.getColor().equals(parsedColor)).map(PersonUtil::convertToDto).toList();
+        List<PersonResponse> response = snapshot().findByColor(parsedColor);
         if (response.isEmpty()) {
             throw new EntityNotFoundException(String.format("Could not find person with color '%s'", color));
         }
         return response;
     }
 
+    /**
+     * Same content as {@link #getPersonsByColor(String)}, serialized once per snapshot version.
+     */
+    public JsonResponse getPersonsByColorJson(String color) {
+        Color parsedColor = PersonUtil.parseColor(color);
+        PersonSnapshot current = snapshot();
+        List<PersonResponse> persons = current.findByColor(parsedColor);
+        if (persons.isEmpty()) {
+            throw new EntityNotFoundException(String.format("Could not find person with color '%s'", color));
+        }
+        return responseCache.get("color/" + parsedColor.name(), current.getVersion(), () -> persons);
+    }
+
+    public List<PersonResponse> getPersonsByZipcode(Long from, Long to, String prefix) {
+        ZipcodeRange range = PersonUtil.parseZipcodeRange(from, to, prefix);
+        return snapshot().findByZipcode(range.from(), range.to());
+    }
+
+    public List<PersonResponse> filterPersons(String color, String city, Long zipFrom, Long zipTo, String zipPrefix, String lastnamePrefix) {
+        PersonFilter filter = PersonUtil.parseFilter(color, city, zipFrom, zipTo, zipPrefix, lastnamePrefix);
+        return snapshot().filter(filter);
+    }
+
+    /**
+     * Prefix and fuzzy search over lastnames and firstnames. The index is built on the first search after the
+     * file is loaded and added persons are indexed as they are appended.
+     */
+    public List<PersonResponse> searchPersons(String query, int limit) {
+        PersonUtil.validateSearchQuery(query);
+        PersonUtil.validatePageSize(limit);
+        return snapshot().search(query, limit);
+    }
+
+    public Map<String, Long> countPersonsByColor() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        snapshot().countByColor().forEach((color, count) -> counts.put(color.name(), count));
+        return counts;
+    }
+
+    /**
+     * Assigns the next id and waits until the writer thread has synced the person to the CSV file, only
+     * then is it published to the snapshot. Appends of concurrent callers are written together and, as the
+     * writer completes them in order, published in the order of their ids. If the write fails, the snapshot
+     * is dropped so that it is rebuilt from what the file contains.
+     */
     public String addPerson(PersonRequest personRequest) {
         if (personRequest == null) {
             throw new IllegalArgumentException("Person request cannot be null");
         }
         Person person = PersonUtil.createPersonInstance(personRequest);
-        log.info("Adding person: {}", person);
 
-        boolean isWritten = fileSystem.writeDataToCsv(filePath, person);
+        CompletableFuture<Long> written;
+        writeLock.lock();
+        try {
+            PersonSnapshot current = currentSnapshot();
+            lastAssignedId = Math.max(current.nextId(), lastAssignedId + 1);
+            person.setId(lastAssignedId);
+            log.info("Adding person: {}", person);
 
-        return isWritten ? "Person added successfully" : "Could not add person";
+            written = fileSystem.appendToCsv(filePath, person).whenComplete((length, error) -> {
+                if (error == null) {
+                    publishAppended(person);
+                } else {
+                    invalidate();
+                }
+            });
+            lastAppend = written;
+        } finally {
+            writeLock.unlock();
+        }
+
+        try {
+            written.join();
+            return "Person added successfully";
+        } catch (CompletionException e) {
+            log.error("Could not add person {}: {}", person.getId(), e.getCause().getMessage());
+            invalidate();
+            return "Could not add person";
+        }
+    }
+
+    /**
+     * Runs once the row is synced, on the writer thread or, if it was already done, under the write lock of
+     * {@link #addPerson}. A stale snapshot is left alone, it is reloaded from the file, which holds the row.
+     */
+    private void publishAppended(Person person) {
+        PersonSnapshot current = snapshot.get();
+        if (current != null && !current.isStale()) {
+            publish(current, current.append(person, versions.incrementAndGet()));
+        }
+    }
+
+    public CacheStatsResponse getCacheStats() {
+        PersonSnapshot current = snapshot.get();
+        return CacheStatsResponse.builder()
+                .version(current == null ? 0 : current.getVersion())
+                .size(current == null ? 0 : current.size())
+                .stale(current != null && current.isStale())
+                .hits(hits.get())
+                .staleReads(staleReads.get())
+                .misses(misses.get())
+                .reloads(reloads.get())
+                .build();
+    }
+
+    /**
+     * Marks the cached snapshot as stale. The next read parses the CSV file again; reads that arrive
+     * while it is being parsed are still served from the stale snapshot.
+     */
+    public void invalidate() {
+        snapshot.updateAndGet(current -> current == null ? null : current.stale());
+    }
+
+    /**
+     * Invalidates the snapshot when the length or the modification time of the file changed, except for the
+     * changes made by appends of this application, which are already part of the snapshot.
+     */
+    private void onFileChanged() {
+        PersonSnapshot current = snapshot.get();
+        FileStamp stamp = fileSystem.fileStamp(filePath);
+        if (current != null && !Objects.equals(stamp, knownFileStamp.get())
+                && (stamp == null || !fileSystem.isOwnAppend(filePath, stamp))) {
+            invalidate();
+        }
+    }
+
+    /**
+     * Wait-free unless there is no snapshot yet: a current snapshot is returned as is, and a stale one is
+     * returned as long as another thread holds the write lock to add a person or reload the file.
+     */
+    private PersonSnapshot snapshot() {
+        PersonSnapshot current = snapshot.get();
+        if (current != null && !current.isStale()) {
+            hits.incrementAndGet();
+            return current;
+        }
+        if (current != null && !writeLock.tryLock()) {
+            staleReads.incrementAndGet();
+            return current;
+        }
+        if (current == null) {
+            writeLock.lock();
+        }
+        try {
+            return currentSnapshot();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the snapshot, parsing the file first if there is none or it is stale. Requires the write lock.
+     */
+    private PersonSnapshot currentSnapshot() {
+        PersonSnapshot current = snapshot.get();
+        if (current != null && !current.isStale()) {
+            hits.incrementAndGet();
+            return current;
+        }
+        misses.incrementAndGet();
+        awaitPendingAppends();
+        FileStamp sourceStamp = fileSystem.fileStamp(filePath);
+        PersonSnapshot loaded = buildSnapshot(versions.incrementAndGet(), fileSystem.loadDataFromCsv(filePath));
+        knownFileStamp.set(sourceStamp);
+        lastAssignedId = 0;
+        reloads.incrementAndGet();
+        log.info("Loaded {} persons into snapshot version {}", loaded.size(), loaded.getVersion());
+        return publish(current, loaded);
     }
 
+    private PersonSnapshot buildSnapshot(long version, List<Person> persons) {
+        return layout == PersonProperties.SnapshotLayout.COLUMNS
+                ? new ColumnarPersonSnapshot(version, persons)
+                : new RowPersonSnapshot(version, persons);
+    }
+
+    /**
+     * Swaps in {@code next} if the snapshot is still {@code expected}. Otherwise it was invalidated in the
+     * meantime (writers hold the write lock, so nothing else can replace it) and {@code next} is published
+     * as stale.
+     */
+    private PersonSnapshot publish(PersonSnapshot expected, PersonSnapshot next) {
+        if (!snapshot.compareAndSet(expected, next)) {
+            next = next.stale();
+            snapshot.set(next);
+        }
+        return next;
+    }
+
+    /**
+     * Appends are enqueued under the write lock and published in order, so once the last one is done the file
+     * holds every person assigned an id so far and no append is left to be published.
+     */
+    private void awaitPendingAppends() {
+        try {
+            lastAppend.join();
+        } catch (CompletionException e) {
+            log.debug("Reloading after failed append: {}", e.getCause().getMessage());
+        }
+    }
 }
@@ -0,0 +1,54 @@
+package assecor.assessment.backend.service;
+
+import assecor.assessment.backend.dto.CacheStatsResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the counters of the {@link FileService} snapshot cache: reads by result
+ * ({@code hit}, {@code stale}, {@code miss}), reloads of the CSV file and the size and version
+ * of the current snapshot.
+ */
+@Component
+public class FileServiceMetrics implements MeterBinder {
+    private final FileService fileService;
+
+    @Autowired
+    public FileServiceMetrics(FileService fileService) {
+        this.fileService = fileService;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        readCounter(registry, "hit", CacheStatsResponse::getHits);
+        readCounter(registry, "stale", CacheStatsResponse::getStaleReads);
+        readCounter(registry, "miss", CacheStatsResponse::getMisses);
+        FunctionCounter.builder("persons.csv.snapshot.reloads", fileService, stat(CacheStatsResponse::getReloads))
+                .description("Times the CSV file was parsed into a new snapshot")
+                .register(registry);
+        Gauge.builder("persons.csv.snapshot.size", fileService, stat(CacheStatsResponse::getSize))
+                .description("Persons in the current snapshot")
+                .baseUnit("rows")
+                .register(registry);
+        Gauge.builder("persons.csv.snapshot.version", fileService, stat(CacheStatsResponse::getVersion))
+                .description("Version of the current snapshot")
+                .register(registry);
+    }
+
+    private void readCounter(MeterRegistry registry, String result, ToDoubleFunction<CacheStatsResponse> count) {
+        FunctionCounter.builder("persons.csv.snapshot.reads", fileService, stat(count))
+                .description("Reads of the CSV snapshot by result")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static ToDoubleFunction<FileService> stat(ToDoubleFunction<CacheStatsResponse> value) {
+        return service -> value.applyAsDouble(service.getCacheStats());
+    }
+}
@@ -0,0 +1,379 @@
+package assecor.assessment.backend.service;
+
+import assecor.assessment.backend.config.BackgroundThreads;
+import assecor.assessment.backend.config.PersonProperties;
+import assecor.assessment.backend.dto.BatchFailure;
+import assecor.assessment.backend.dto.ImportJobStatus;
+import assecor.assessment.backend.exception.EntityNotFoundException;
+import assecor.assessment.backend.exception.TooManyImportsException;
+import assecor.assessment.backend.exception.UploadTooLargeException;
+import assecor.assessment.backend.io.FileSystem;
+import assecor.assessment.backend.model.Person;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Imports uploaded person CSVs into MongoDB as jobs. The calling thread stores the upload in a temporary file and
+ * returns; a background thread parses the file into batches of {@code persons.mongo.batch-size} while
+ * {@code persons.mongo.import-writers} background threads insert them with {@link PersonService#insertBatch}. The
+ * batches are handed over through a queue of {@code persons.mongo.import-queue-capacity}, so parsing waits when the
+ * writers fall behind. Uploads are limited to {@code persons.mongo.import-max-size}.
+ * <p>
+ * The status of the last {@value #MAX_JOBS} jobs can be polled by job id; finished jobs make room for new ones,
+ * and a new import is rejected while that many jobs are still running.
+ */
+@Slf4j
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PersonImportService {
+    private static final int MAX_JOBS = 100;
+    private static final int MAX_REPORTED_FAILURES = 100;
+    private static final Batch END = new Batch(new int[0], List.of());
+
+    private final PersonService personService;
+    private final FileSystem fileSystem;
+    private final PersonProperties properties;
+    private final BackgroundThreads threads;
+    private final Map<String, ImportJob> jobs = new LinkedHashMap<>();
+
+    @Autowired
+    public PersonImportService(PersonService personService, FileSystem fileSystem, PersonProperties properties,
+                               BackgroundThreads threads) {
+        this.personService = personService;
+        this.fileSystem = fileSystem;
+        this.properties = properties;
+        this.threads = threads;
+    }
+
+    /**
+     * Imports the uploaded part, which the multipart resolver has already checked against the limit.
+     */
+    public ImportJobStatus startImport(MultipartFile file) throws IOException {
+        return startImport(file.getSize(), file::transferTo);
+    }
+
+    /**
+     * Imports {@code csv} of {@code size} bytes, {@code -1} if unknown, and returns the status of the job once
+     * the upload is stored; it is parsed and written in the background. A known size above the limit is rejected
+     * before the job starts, an upload that turns out larger once it is read.
+     */
+    public ImportJobStatus startImport(InputStream csv, long size) throws IOException {
+        long maxSize = maxSize();
+        return startImport(size, spool -> {
+            try (OutputStream output = Files.newOutputStream(spool)) {
+                new LimitedInputStream(csv, maxSize).transferTo(output);
+            }
+        });
+    }
+
+    private ImportJobStatus startImport(long size, Upload upload) throws IOException {
+        long maxSize = maxSize();
+        if (size > maxSize) {
+            throw new UploadTooLargeException("Upload of " + size + " bytes exceeds the limit of " + maxSize + " bytes");
+        }
+        ImportJob job = new ImportJob(UUID.randomUUID().toString());
+        register(job);
+        Path spool;
+        try {
+            spool = store(upload);
+        } catch (IOException | RuntimeException e) {
+            unregister(job);
+            throw e;
+        }
+        int writers = Math.max(1, properties.getMongo().getImportWriters());
+        BlockingQueue<Batch> batches = new ArrayBlockingQueue<>(Math.max(1, properties.getMongo().getImportQueueCapacity()));
+        AtomicInteger runningWriters = new AtomicInteger(writers);
+        for (int i = 0; i < writers; i++) {
+            threads.start("person-import-writer-" + i, () -> write(job, batches, runningWriters));
+        }
+        threads.start("person-import-parser", () -> parse(job, spool, batches));
+        log.info("Started import {}", job.id);
+        return job.status();
+    }
+
+    public ImportJobStatus getImportStatus(String id) {
+        ImportJob job;
+        synchronized (jobs) {
+            job = jobs.get(id);
+        }
+        if (job == null) {
+            throw new EntityNotFoundException("Import job " + id + " not found!");
+        }
+        return job.status();
+    }
+
+    private long maxSize() {
+        return properties.getMongo().getImportMaxSize().toBytes();
+    }
+
+    /**
+     * Writes the upload to a new temporary file, which is deleted again if that fails.
+     */
+    private static Path store(Upload upload) throws IOException {
+        Path spool = Files.createTempFile("person-import-", ".csv");
+        try {
+            upload.transferTo(spool);
+            return spool;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spool);
+            throw e;
+        }
+    }
+
+    /**
+     * Evicts finished jobs, oldest first, until there is room for {@code job}.
+     */
+    private void register(ImportJob job) {
+        synchronized (jobs) {
+            Iterator<ImportJob> eldest = jobs.values().iterator();
+            while (jobs.size() >= MAX_JOBS && eldest.hasNext()) {
+                if (eldest.next().isDone()) {
+                    eldest.remove();
+                }
+            }
+            if (jobs.size() >= MAX_JOBS) {
+                throw new TooManyImportsException(MAX_JOBS + " imports are running, try again later");
+            }
+            jobs.put(job.id, job);
+        }
+    }
+
+    private void unregister(ImportJob job) {
+        synchronized (jobs) {
+            jobs.remove(job.id);
+        }
+    }
+
+    /**
+     * Hands the persons parsed from {@code spool} to the writers batch by batch and always ends with {@link #END},
+     * also when parsing fails or the job failed while writing, then deletes the file. When a person is returned,
+     * {@code job.skipped} holds the lines skipped before it, so its id plus that count is its line number in the
+     * upload.
+     */
+    private void parse(ImportJob job, Path spool, BlockingQueue<Batch> batches) {
+        int batchSize = Math.max(1, properties.getMongo().getBatchSize());
+        try (Stream<Person> persons = fileSystem.streamDataFromCsv(Files.newInputStream(spool), job.skipped)) {
+            Batch batch = new Batch(batchSize);
+            Iterator<Person> iterator = persons.iterator();
+            while (!job.isFailed() && iterator.hasNext()) {
+                Person person = iterator.next();
+                batch.add(person, (int) (person.getId() + job.skipped.sum()));
+                job.parsed.increment();
+                if (batch.persons().size() == batchSize) {
+                    batches.put(batch);
+                    batch = new Batch(batchSize);
+                }
+            }
+            if (!batch.persons().isEmpty()) {
+                batches.put(batch);
+            }
+        } catch (IOException | RuntimeException e) {
+            job.fail(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail(e);
+        } finally {
+            putEnd(batches);
+            delete(spool);
+        }
+    }
+
+    private static void delete(Path spool) {
+        try {
+            Files.deleteIfExists(spool);
+        } catch (IOException e) {
+            log.warn("Could not delete the stored upload {}: {}", spool, e.getMessage());
+        }
+    }
+
+    /**
+     * Inserts batches until {@link #END}, which is put back for the other writers. Once the job failed the
+     * remaining batches are only drained. The last writer to finish completes the job.
+     */
+    private void write(ImportJob job, BlockingQueue<Batch> batches, AtomicInteger runningWriters) {
+        try {
+            while (true) {
+                Batch batch = batches.take();
+                if (batch == END) {
+                    putEnd(batches);
+                    return;
+                }
+                if (job.isFailed()) {
+                    continue;
+                }
+                List<BatchFailure> failures = new ArrayList<>();
+                try {
+                    job.inserted.add(personService.insertBatch(batch.persons(), batch.lines(), failures));
+                    job.addFailures(failures);
+                } catch (RuntimeException e) {
+                    job.fail(e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail(e);
+        } finally {
+            if (runningWriters.decrementAndGet() == 0) {
+                job.complete();
+            }
+        }
+    }
+
+    /**
+     * Writers take a batch before they put {@link #END} back, so there is always room for it.
+     */
+    private static void putEnd(BlockingQueue<Batch> batches) {
+        try {
+            batches.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Persons parsed from the upload with their line numbers, which are reported as the index of a failure.
+     */
+    private record Batch(int[] lines, List<Person> persons) {
+        private Batch(int size) {
+            this(new int[size], new ArrayList<>(size));
+        }
+
+        void add(Person person, int line) {
+            lines[persons.size()] = line;
+            persons.add(person);
+        }
+    }
+
+    /**
+     * Stores an upload in the given file.
+     */
+    @FunctionalInterface
+    private interface Upload {
+        void transferTo(Path spool) throws IOException;
+    }
+
+    /**
+     * Fails the read that goes past {@code maxSize} bytes.
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+        private final long maxSize;
+        private long read;
+
+        private LimitedInputStream(InputStream input, long maxSize) {
+            super(input);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) {
+            read += n;
+            if (read > maxSize) {
+                throw new UploadTooLargeException("Upload exceeds the limit of " + maxSize + " bytes");
+            }
+        }
+    }
+
+    private static final class ImportJob {
+        private final String id;
+        private final Instant startedAt = Instant.now();
+        private final LongAdder parsed = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private final LongAdder inserted = new LongAdder();
+        private final List<BatchFailure> failures = new ArrayList<>();
+        private long failed;
+        private String error;
+        private Instant finishedAt;
+
+        private ImportJob(String id) {
+            this.id = id;
+        }
+
+        synchronized void addFailures(List<BatchFailure> batchFailures) {
+            failed += batchFailures.size();
+            for (BatchFailure failure : batchFailures) {
+                if (failures.size() < MAX_REPORTED_FAILURES) {
+                    failures.add(failure);
+                }
+            }
+        }
+
+        synchronized void fail(Exception e) {
+            if (error == null) {
+                log.error("Import {} failed", id, e);
+                error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            }
+        }
+
+        synchronized boolean isFailed() {
+            return error != null;
+        }
+
+        synchronized void complete() {
+            finishedAt = Instant.now();
+            log.info("Finished import {}: inserted {} of {} persons, skipped {} lines, {} failed{}", id, inserted.sum(),
+                    parsed.sum(), skipped.sum(), failed, error == null ? "" : ", aborted: " + error);
+        }
+
+        synchronized boolean isDone() {
+            return finishedAt != null;
+        }
+
+        synchronized ImportJobStatus status() {
+            List<BatchFailure> reported = new ArrayList<>(failures);
+            reported.sort(Comparator.comparingInt(BatchFailure::getIndex));
+            return ImportJobStatus.builder()
+                    .id(id)
+                    .state(finishedAt == null ? ImportJobStatus.State.RUNNING
+                            : error == null ? ImportJobStatus.State.COMPLETED : ImportJobStatus.State.FAILED)
+                    .parsed(parsed.sum())
+                    .skipped(skipped.sum())
+                    .inserted(inserted.sum())
+                    .failed(failed)
+                    .failures(reported)
+                    .error(error)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package assecor.assessment.backend.service;
+
+import assecor.assessment.backend.cache.NameIndex;
+import assecor.assessment.backend.model.Person;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * {@link NameIndex} over the persons stored in MongoDB. The person service of the running web stack fills it once
+ * the application is up and keeps it current as it inserts persons. The blocking stack hands over a cursor, which is
+ * read in the background like {@link assecor.assessment.backend.config.MongoIndexInitializer}; the reactive stack
+ * subscribes to its driver and {@link #add}s each person. Until loading is done, searches only see the persons read
+ * so far.
+ * <p>
+ * While a reload builds a new index, persons added meanwhile go into both indexes, so the swap does not lose them.
+ * {@link NameIndex} skips persons that are already indexed, so those also read by the reload are not duplicated.
+ */
+@Slf4j
+@Component
+public class PersonSearchIndex {
+    private final TaskExecutor taskExecutor;
+    private final ReentrantLock swapLock = new ReentrantLock();
+    private volatile NameIndex index = new NameIndex();
+    private NameIndex rebuilding;
+
+    @Autowired
+    public PersonSearchIndex(TaskExecutor applicationTaskExecutor) {
+        this.taskExecutor = applicationTaskExecutor;
+    }
+
+    /**
+     * Adds the persons of the cursor opened by {@code persons} in the background and closes it.
+     */
+    public void load(Supplier<Stream<Person>> persons) {
+        taskExecutor.execute(() -> {
+            try (Stream<Person> cursor = persons.get()) {
+                cursor.forEach(this::add);
+                log.info("Indexed the names of {} persons", size());
+            } catch (RuntimeException e) {
+                log.warn("Could not index the names of persons: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Replaces the index in the background with one built afresh from the cursor opened by {@code persons}, for
+     * when persons were changed or deleted rather than added. Searches use the old index until the new one is
+     * complete; a reload that is overtaken by a later one is dropped.
+     */
+    public void reload(Supplier<Stream<Person>> persons) {
+        taskExecutor.execute(() -> reloadPersons(persons));
+    }
+
+    private void reloadPersons(Supplier<Stream<Person>> persons) {
+        NameIndex reloaded = new NameIndex();
+        swapLock.lock();
+        try {
+            rebuilding = reloaded;
+        } finally {
+            swapLock.unlock();
+        }
+        try (Stream<Person> cursor = persons.get()) {
+            cursor.forEach(person -> reloaded.add(person.getId(), person.getLastname(), person.getFirstname()));
+        } catch (RuntimeException e) {
+            finishReload(reloaded, false);
+            log.warn("Could not reindex the names of persons: {}", e.getMessage());
+            return;
+        }
+        if (finishReload(reloaded, true)) {
+            log.info("Reindexed the names of {} persons", reloaded.size());
+        }
+    }
+
+    private boolean finishReload(NameIndex reloaded, boolean swap) {
+        swapLock.lock();
+        try {
+            if (rebuilding != reloaded) {
+                return false;
+            }
+            if (swap) {
+                index = reloaded;
+            }
+            rebuilding = null;
+            return true;
+        } finally {
+            swapLock.unlock();
+        }
+    }
+
+    public void add(Person person) {
+        swapLock.lock();
+        try {
+            index.add(person.getId(), person.getLastname(), person.getFirstname());
+            if (rebuilding != null) {
+                rebuilding.add(person.getId(), person.getLastname(), person.getFirstname());
+            }
+        } finally {
+            swapLock.unlock();
+        }
+    }
+
+    /**
+     * Number of indexed persons.
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Returns the ids of at most {@code limit} persons whose names match {@code query}, best match first.
+     */
+    public int[] search(String query, int limit) {
+        return index.search(query, limit, id -> true);
+    }
+}
@@ -1,26 +1,96 @@
 package assecor.assessment.backend.service;
 
+import assecor.assessment.backend.config.PersonProperties;
+import assecor.assessment.backend.dto.BatchFailure;
+import assecor.assessment.backend.dto.BatchResponse;
+import assecor.assessment.backend.dto.ColorCount;
+import assecor.assessment.backend.dto.PersonPage;
 import assecor.assessment.backend.dto.PersonRequest;
 import assecor.assessment.backend.dto.PersonResponse;
+import assecor.assessment.backend.exception.ColorNotFoundException;
 import assecor.assessment.backend.exception.EntityNotFoundException;
 import assecor.assessment.backend.exception.InvalidRequestException;
 import assecor.assessment.backend.model.Color;
 import assecor.assessment.backend.model.Person;
+import assecor.assessment.backend.repository.PersonFilterQuery;
+import assecor.assessment.backend.repository.PersonIdAllocator;
 import assecor.assessment.backend.repository.PersonRepository;
+import assecor.assessment.backend.util.PersonFilter;
 import assecor.assessment.backend.util.PersonUtil;
+import assecor.assessment.backend.util.ZipcodeRange;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 
+/**
+ * Persons stored in MongoDB. Lookups by id and by color are cached in {@link #PERSONS_BY_ID} and
+ * {@link #PERSONS_BY_COLOR}; creating persons evicts exactly the entries of their ids and colors
+ * and adds their names to the {@link PersonSearchIndex}.
+ * <p>
+ * The bulk inserts and filter queries that go through {@link MongoTemplate} are timed like the repository calls,
+ * as {@value #REPOSITORY_INVOCATIONS} with the repository {@code MongoTemplate}.
+ */
 @Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class PersonService {
+    public static final String PERSONS_BY_ID = "personsById";
+    public static final String PERSONS_BY_COLOR = "personsByColor";
+    static final String REPOSITORY_INVOCATIONS = "spring.data.repository.invocations";
+
     private final PersonRepository personRepository;
+    private final PersonIdAllocator idAllocator;
+    private final MongoTemplate mongoTemplate;
+    private final PersonProperties properties;
+    private final CacheManager cacheManager;
+    private final PersonSearchIndex searchIndex;
+    private final MeterRegistry meterRegistry;
 
     @Autowired
-    public PersonService(PersonRepository personRepository) {
+    public PersonService(PersonRepository personRepository, PersonIdAllocator idAllocator, MongoTemplate mongoTemplate,
+                         PersonProperties properties, CacheManager cacheManager, PersonSearchIndex searchIndex,
+                         MeterRegistry meterRegistry) {
         this.personRepository = personRepository;
+        this.idAllocator = idAllocator;
+        this.mongoTemplate = mongoTemplate;
+        this.properties = properties;
+        this.cacheManager = cacheManager;
+        this.searchIndex = searchIndex;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Fills the {@link PersonSearchIndex} from a cursor over the collection.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void indexNames() {
+        searchIndex.load(personRepository::streamAllBy);
     }
 
     public List<PersonResponse> getAllPersons() {
@@ -28,26 +98,215 @@ public class PersonService {
         return persons.stream().map(PersonUtil::convertToDto).toList();
     }
 
+    /**
+     * Streams the whole collection from a MongoDB cursor, converting each document as it arrives.
+     * Closing the returned stream closes the cursor.
+     */
+    public Stream<PersonResponse> streamAllPersons() {
+        return personRepository.streamAllBy().map(PersonUtil::convertToDto);
+    }
+
+    /**
+     * Keyset pagination on {@code _id}: fetches one person more than requested to know whether another page exists.
+     */
+    public PersonPage getPersonPage(int limit, String cursor, boolean includeTotal) {
+        PersonUtil.validatePageSize(limit);
+        int afterId = PersonUtil.parseCursor(cursor);
+
+        List<Person> persons = personRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit + 1));
+        boolean hasMore = persons.size() > limit;
+        List<Person> page = hasMore ? persons.subList(0, limit) : persons;
+        return PersonPage.builder()
+                .persons(page.stream().map(PersonUtil::convertToDto).toList())
+                .nextCursor(hasMore ? String.valueOf(page.get(page.size() - 1).getId()) : null)
+                .total(includeTotal ? personRepository.count() : null)
+                .build();
+    }
+
+    @Cacheable(cacheNames = PERSONS_BY_ID, key = "#id")
     public PersonResponse getPersonByID(int id) {
         return personRepository.findById(id)
                 .map(PersonUtil::convertToDto)
                 .orElseThrow(() -> new EntityNotFoundException("Person with ID " + id + " not found!"));
     }
 
+    /**
+     * Inserts the person with the next allocated id. An id that is already taken, e.g. by a document written
+     * with an id that did not come from the allocator, fails with a {@link org.springframework.dao.DuplicateKeyException}.
+     */
     public String createPerson(PersonRequest personRequest) {
         Person person = PersonUtil.createPersonInstance(personRequest);
-        person.setId((int) (personRepository.count() + 1));
+        person.setId(idAllocator.nextId());
+
+        Person savedPerson = personRepository.insert(person);
+        evict(List.of(savedPerson));
+        searchIndex.add(savedPerson);
+
+        return "Person with id " + savedPerson.getId() + " added successfully!";
+    }
+
+    /**
+     * Validates and inserts the given persons in unordered bulk writes of {@code persons.mongo.batch-size}.
+     * Invalid or rejected items are reported with their index and do not abort the batch. Reading stops
+     * at the first item that cannot be read at all.
+     */
+    public BatchResponse createPersons(Iterator<PersonRequest> personRequests) {
+        int batchSize = properties.getMongo().getBatchSize();
+        List<BatchFailure> failures = new ArrayList<>();
+        List<Person> batch = new ArrayList<>(batchSize);
+        int[] batchIndexes = new int[batchSize];
+        int received = 0;
+        int inserted = 0;
+
+        while (true) {
+            PersonRequest personRequest;
+            try {
+                if (!personRequests.hasNext()) {
+                    break;
+                }
+                personRequest = personRequests.next();
+            } catch (RuntimeException e) {
+                failures.add(new BatchFailure(received++, "Could not read person: " + e.getMessage()));
+                break;
+            }
+
+            int index = received++;
+            try {
+                batch.add(PersonUtil.createPersonInstance(personRequest));
+                batchIndexes[batch.size() - 1] = index;
+            } catch (InvalidRequestException | ColorNotFoundException e) {
+                failures.add(new BatchFailure(index, e.getMessage()));
+            }
+
+            if (batch.size() == batchSize) {
+                inserted += insertBatch(batch, batchIndexes, failures);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            inserted += insertBatch(batch, batchIndexes, failures);
+        }
 
-        Person savedPerson = personRepository.save(person);
+        failures.sort(Comparator.comparingInt(BatchFailure::getIndex));
+        return BatchResponse.builder().received(received).inserted(inserted).failures(failures).build();
+    }
 
-        return personRepository.existsById(savedPerson.getId())
-                ? "Person with id " + savedPerson.getId() + " added successfully!"
-                : "Adding new person failed!";
+    /**
+     * Assigns ids to {@code batch} and inserts it in one unordered bulk write. Rejected persons are added to
+     * {@code failures} with their entry of {@code batchIndexes}; returns the number of inserted persons.
+     */
+    int insertBatch(List<Person> batch, int[] batchIndexes, List<BatchFailure> failures) {
+        int firstId = idAllocator.reserve(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).setId(firstId + i);
+        }
+        try {
+            int inserted = timed("bulkInsert", () -> mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Person.class)
+                    .insert(batch)
+                    .execute()
+                    .getInsertedCount());
+            batch.forEach(searchIndex::add);
+            return inserted;
+        } catch (BulkOperationException e) {
+            Set<Integer> rejected = new HashSet<>();
+            e.getErrors().forEach(error -> {
+                failures.add(new BatchFailure(batchIndexes[error.getIndex()], error.getMessage()));
+                rejected.add(error.getIndex());
+            });
+            for (int i = 0; i < batch.size(); i++) {
+                if (!rejected.contains(i)) {
+                    searchIndex.add(batch.get(i));
+                }
+            }
+            return e.getResult().getInsertedCount();
+        } finally {
+            evict(batch);
+        }
     }
 
+    @Cacheable(cacheNames = PERSONS_BY_COLOR, key = "#color")
     public List<PersonResponse> fetchPersonByColor(String color) {
         Color parsedColor = parseColor(color);
-        return personRepository.findAllByColor(parsedColor);
+        return List.copyOf(personRepository.findAllByColor(parsedColor));
+    }
+
+    public List<PersonResponse> fetchPersonsByZipcode(Long from, Long to, String prefix) {
+        ZipcodeRange range = PersonUtil.parseZipcodeRange(from, to, prefix);
+        return personRepository.findAllByZipcodeRange(range.from(), range.to());
+    }
+
+    /**
+     * Runs the filter as one query, see {@link PersonFilterQuery}.
+     */
+    public List<PersonResponse> filterPersons(String color, String city, Long zipFrom, Long zipTo, String zipPrefix, String lastnamePrefix) {
+        PersonFilter filter = PersonUtil.parseFilter(color, city, zipFrom, zipTo, zipPrefix, lastnamePrefix);
+        return timed("filter", () -> mongoTemplate.find(PersonFilterQuery.of(filter), Person.class)).stream()
+                .map(PersonUtil::convertToDto)
+                .toList();
+    }
+
+    /**
+     * Ranks the matching ids with the {@link PersonSearchIndex} and loads those persons in one query.
+     */
+    public List<PersonResponse> searchPersons(String query, int limit) {
+        PersonUtil.validateSearchQuery(query);
+        PersonUtil.validatePageSize(limit);
+        int[] ids = searchIndex.search(query, limit);
+        Map<Integer, Person> found = new HashMap<>();
+        personRepository.findAllById(Arrays.stream(ids).boxed().toList()).forEach(person -> found.put(person.getId(), person));
+        return Arrays.stream(ids)
+                .mapToObj(found::get)
+                .filter(Objects::nonNull)
+                .map(PersonUtil::convertToDto)
+                .toList();
+    }
+
+    public Map<String, Long> countPersonsByColor() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Color color : Color.values()) {
+            counts.put(color.name(), 0L);
+        }
+        for (ColorCount colorCount : personRepository.countPersonsByColor()) {
+            counts.put(colorCount.getColor().name(), colorCount.getCount());
+        }
+        return counts;
+    }
+
+    /**
+     * Drops the cached lookups that the given new persons change: their ids and their color lists.
+     */
+    private void evict(List<Person> persons) {
+        Cache byId = cacheManager.getCache(PERSONS_BY_ID);
+        Cache byColor = cacheManager.getCache(PERSONS_BY_COLOR);
+        Set<Color> colors = EnumSet.noneOf(Color.class);
+        for (Person person : persons) {
+            byId.evict(person.getId());
+            colors.add(person.getColor());
+        }
+        colors.forEach(color -> byColor.evict(color.name()));
+    }
+
+    /**
+     * Records {@code call} with the tags of the repository invocation metrics.
+     */
+    private <T> T timed(String method, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String state = "SUCCESS";
+        String exception = "None";
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            state = "ERROR";
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(REPOSITORY_INVOCATIONS)
+                    .tag("repository", "MongoTemplate")
+                    .tag("method", method)
+                    .tag("state", state)
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
     }
 
     private Color parseColor(String color) {
@@ -0,0 +1,332 @@
+package assecor.assessment.backend.service;
+
+import assecor.assessment.backend.config.PersonProperties;
+import assecor.assessment.backend.dto.SyncResponse;
+import assecor.assessment.backend.exception.EntityNotFoundException;
+import assecor.assessment.backend.io.FileSystem;
+import assecor.assessment.backend.model.Person;
+import assecor.assessment.backend.repository.PersonIdAllocator;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.Fields;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Synchronizes the CSV file into MongoDB, writing only what changed. Every document written by the sync keeps the
+ * id of its row in {@value #CSV_ID_FIELD}, which has a unique index, and a hash of the row in {@value #HASH_FIELD}.
+ * The rows of the file, in the id order {@link FileSystem#loadDataFromCsv} assigns, are merged with a cursor over
+ * the row ids and hashes of the synced documents sorted by row id, so neither side is held in memory. Rows without
+ * a document are inserted, rows whose document has another hash are replaced and synced documents without a row are
+ * deleted, in unordered bulk writes of {@code persons.mongo.batch-size}.
+ * <p>
+ * Inserted documents get their {@code _id} from the {@link PersonIdAllocator} like persons created through the API,
+ * so rows and persons never compete for an id, and documents without a row id are never changed. A row inserted by
+ * another sync in the meantime fails with a duplicate key and is reported as a conflict. Documents written by
+ * earlier versions of the sync, which used the row id as {@code _id}, are adopted as synced documents of that row.
+ * The reported counts are those of the bulk write results.
+ * <p>
+ * Runs on demand and on the {@code persons.sync.cron} schedule, one sync at a time.
+ */
+@Slf4j
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PersonSyncService {
+    static final String CSV_ID_FIELD = "csvId";
+    static final String HASH_FIELD = "syncHash";
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final FileSystem fileSystem;
+    private final MongoTemplate mongoTemplate;
+    private final PersonIdAllocator idAllocator;
+    private final PersonSearchIndex searchIndex;
+    private final CacheManager cacheManager;
+    private final PersonProperties properties;
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private volatile SyncResponse lastSync;
+
+    @Autowired
+    public PersonSyncService(FileSystem fileSystem, MongoTemplate mongoTemplate, PersonIdAllocator idAllocator,
+                             PersonSearchIndex searchIndex, CacheManager cacheManager, PersonProperties properties) {
+        this.fileSystem = fileSystem;
+        this.mongoTemplate = mongoTemplate;
+        this.idAllocator = idAllocator;
+        this.searchIndex = searchIndex;
+        this.cacheManager = cacheManager;
+        this.properties = properties;
+    }
+
+    @Scheduled(cron = "${persons.sync.cron:-}")
+    public void scheduledSync() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            log.warn("Could not sync the CSV file into MongoDB: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Runs a sync, after the one in progress if any, and returns what it changed.
+     */
+    public SyncResponse sync() {
+        syncLock.lock();
+        try {
+            Instant startedAt = Instant.now();
+            long start = System.nanoTime();
+            BulkWriter writer = new BulkWriter(properties.getMongo().getBatchSize());
+            long rows = 0;
+            long unchanged = 0;
+
+            adoptLegacyDocuments();
+            try (Stream<Person> csv = fileSystem.streamDataFromCsv(FileService.CSV_FILE);
+                 Stream<Document> stored = mongoTemplate.stream(storedHashes(), Document.class, collectionName())) {
+                Iterator<Person> persons = csv.iterator();
+                Iterator<Document> documents = stored.iterator();
+                Document document = documents.hasNext() ? documents.next() : null;
+                while (persons.hasNext()) {
+                    Person person = persons.next();
+                    rows++;
+                    while (document != null && csvId(document) < person.getId()) {
+                        writer.delete(document);
+                        document = documents.hasNext() ? documents.next() : null;
+                    }
+                    long hash = hash(person);
+                    if (document != null && csvId(document) == person.getId()) {
+                        if (Objects.equals(document.get(HASH_FIELD), hash)) {
+                            unchanged++;
+                        } else {
+                            writer.replace(person, hash);
+                        }
+                        document = documents.hasNext() ? documents.next() : null;
+                    } else {
+                        writer.insert(person, hash);
+                    }
+                }
+                while (document != null) {
+                    writer.delete(document);
+                    document = documents.hasNext() ? documents.next() : null;
+                }
+                writer.flush();
+            }
+
+            if (writer.inserted + writer.updated + writer.deleted > 0) {
+                onChanged();
+            }
+            SyncResponse response = SyncResponse.builder()
+                    .csvRows(rows)
+                    .unchanged(unchanged)
+                    .inserted(writer.inserted)
+                    .updated(writer.updated)
+                    .deleted(writer.deleted)
+                    .conflicts(writer.conflicts)
+                    .failed(writer.failed)
+                    .startedAt(startedAt)
+                    .durationMillis((System.nanoTime() - start) / 1_000_000)
+                    .build();
+            log.info("Synced {} CSV rows into MongoDB: {} unchanged, {} inserted, {} updated, {} deleted, {} conflicts, {} failed in {} ms",
+                    rows, unchanged, writer.inserted, writer.updated, writer.deleted, writer.conflicts, writer.failed,
+                    response.getDurationMillis());
+            lastSync = response;
+            return response;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    public SyncResponse getLastSync() {
+        SyncResponse response = lastSync;
+        if (response == null) {
+            throw new EntityNotFoundException("No sync has run yet!");
+        }
+        return response;
+    }
+
+    /**
+     * Hash of the stored fields of a row, independent of its id: 64-bit FNV-1a over their UTF-8 bytes, each
+     * field followed by a zero byte so that values cannot run into each other.
+     */
+    static long hash(Person person) {
+        long hash = FNV_OFFSET_BASIS;
+        hash = hash(hash, person.getLastname());
+        hash = hash(hash, person.getFirstname());
+        hash = hash(hash, Long.toString(person.getZipcode()));
+        hash = hash(hash, person.getCity());
+        return hash(hash, person.getColor().name());
+    }
+
+    private static long hash(long hash, String value) {
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xFF)) * FNV_PRIME;
+        }
+        return hash * FNV_PRIME;
+    }
+
+    /**
+     * The cached lookups and indexed names may be outdated.
+     */
+    private void onChanged() {
+        cacheManager.getCache(PersonService.PERSONS_BY_ID).clear();
+        cacheManager.getCache(PersonService.PERSONS_BY_COLOR).clear();
+        searchIndex.reload(() -> mongoTemplate.stream(new Query(), Person.class));
+    }
+
+    /**
+     * Gives documents that carry a hash but no row id, written when the row id was the {@code _id}, that row id.
+     */
+    private void adoptLegacyDocuments() {
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where(HASH_FIELD).exists(true).and(CSV_ID_FIELD).exists(false)),
+                AggregationUpdate.update().set(CSV_ID_FIELD).toValueOf(Fields.field("_id")),
+                collectionName());
+    }
+
+    private static Query storedHashes() {
+        Query query = Query.query(Criteria.where(CSV_ID_FIELD).exists(true))
+                .with(Sort.by(Sort.Direction.ASC, CSV_ID_FIELD));
+        query.fields().include(CSV_ID_FIELD).include(HASH_FIELD);
+        return query;
+    }
+
+    private String collectionName() {
+        return mongoTemplate.getCollectionName(Person.class);
+    }
+
+    /**
+     * Matches the document synced from the row with {@code csvId}.
+     */
+    private static Query synced(int csvId) {
+        return Query.query(Criteria.where(CSV_ID_FIELD).is(csvId));
+    }
+
+    private static int csvId(Document document) {
+        return ((Number) document.get(CSV_ID_FIELD)).intValue();
+    }
+
+    /**
+     * The document stored for a row: the fields of {@link Person} plus its row id and hash, and the {@code _id}
+     * unless it is {@code null}, which a replacement keeps.
+     */
+    private static Document toDocument(Integer id, Person person, long hash) {
+        Document document = id == null ? new Document() : new Document("_id", id);
+        return document
+                .append("lastname", person.getLastname())
+                .append("firstname", person.getFirstname())
+                .append("zipcode", person.getZipcode())
+                .append("city", person.getCity())
+                .append("color", person.getColor().name())
+                .append(CSV_ID_FIELD, person.getId())
+                .append(HASH_FIELD, hash);
+    }
+
+    private record Row(Person person, long hash) {
+    }
+
+    /**
+     * Collects insertions, replacements and deletions into unordered bulk writes of at most {@code batchSize}
+     * operations and counts what their results report. The ids of the insertions are reserved together when a
+     * write is executed. A rejected operation is counted as a conflict if its row id is taken, else as failed,
+     * and does not stop the others.
+     */
+    private final class BulkWriter {
+        private final int batchSize;
+        private final List<Row> inserts = new ArrayList<>();
+        private BulkOperations operations;
+        private int pending;
+        private long inserted;
+        private long updated;
+        private long deleted;
+        private long conflicts;
+        private long failed;
+
+        private BulkWriter(int batchSize) {
+            this.batchSize = Math.max(1, batchSize);
+        }
+
+        void insert(Person person, long hash) {
+            inserts.add(new Row(person, hash));
+            added();
+        }
+
+        void replace(Person person, long hash) {
+            operations().replaceOne(synced(person.getId()), toDocument(null, person, hash));
+            added();
+        }
+
+        void delete(Document document) {
+            operations().remove(synced(csvId(document)));
+            added();
+        }
+
+        void flush() {
+            if (pending == 0) {
+                return;
+            }
+            if (!inserts.isEmpty()) {
+                int firstId = idAllocator.reserve(inserts.size());
+                List<Document> documents = new ArrayList<>(inserts.size());
+                for (int i = 0; i < inserts.size(); i++) {
+                    documents.add(toDocument(firstId + i, inserts.get(i).person(), inserts.get(i).hash()));
+                }
+                operations().insert(documents);
+                inserts.clear();
+            }
+            try {
+                count(operations.execute());
+            } catch (BulkOperationException e) {
+                count(e.getResult());
+                for (BulkWriteError error : e.getErrors()) {
+                    if (error.getCategory() == ErrorCategory.DUPLICATE_KEY) {
+                        conflicts++;
+                    } else {
+                        failed++;
+                    }
+                }
+                log.warn("{} of {} sync writes were rejected, first: {}", e.getErrors().size(), pending, e.getErrors().get(0).getMessage());
+            }
+            operations = null;
+            pending = 0;
+        }
+
+        private void count(BulkWriteResult result) {
+            inserted += result.getInsertedCount();
+            updated += result.getModifiedCount();
+            deleted += result.getDeletedCount();
+        }
+
+        private BulkOperations operations() {
+            if (operations == null) {
+                operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collectionName());
+            }
+            return operations;
+        }
+
+        private void added() {
+            if (++pending == batchSize) {
+                flush();
+            }
+        }
+    }
+}
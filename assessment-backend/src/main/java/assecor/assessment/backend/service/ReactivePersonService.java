@@ -0,0 +1,161 @@
+package assecor.assessment.backend.service;
+
+import assecor.assessment.backend.dto.ColorCount;
+import assecor.assessment.backend.dto.PersonPage;
+import assecor.assessment.backend.dto.PersonRequest;
+import assecor.assessment.backend.dto.PersonResponse;
+import assecor.assessment.backend.exception.EntityNotFoundException;
+import assecor.assessment.backend.exception.InvalidRequestException;
+import assecor.assessment.backend.model.Color;
+import assecor.assessment.backend.model.Person;
+import assecor.assessment.backend.repository.PersonFilterQuery;
+import assecor.assessment.backend.repository.ReactivePersonIdAllocator;
+import assecor.assessment.backend.repository.ReactivePersonRepository;
+import assecor.assessment.backend.util.PersonFilter;
+import assecor.assessment.backend.util.PersonUtil;
+import assecor.assessment.backend.util.ZipcodeRange;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Reactive variant of {@link PersonService} with the same validation and error behaviour.
+ */
+@Slf4j
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePersonService {
+    private final ReactivePersonRepository personRepository;
+    private final ReactivePersonIdAllocator idAllocator;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final PersonSearchIndex searchIndex;
+
+    @Autowired
+    public ReactivePersonService(ReactivePersonRepository personRepository, ReactivePersonIdAllocator idAllocator,
+                                 ReactiveMongoTemplate mongoTemplate, PersonSearchIndex searchIndex) {
+        this.personRepository = personRepository;
+        this.idAllocator = idAllocator;
+        this.mongoTemplate = mongoTemplate;
+        this.searchIndex = searchIndex;
+    }
+
+    /**
+     * Fills the {@link PersonSearchIndex} from the reactive driver.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void indexNames() {
+        personRepository.findAllOrderedById().subscribe(searchIndex::add,
+                e -> log.warn("Could not index the names of persons: {}", e.getMessage()),
+                () -> log.info("Indexed the names of {} persons", searchIndex.size()));
+    }
+
+    public Flux<PersonResponse> getAllPersons() {
+        return personRepository.findAllOrderedById().map(PersonUtil::convertToDto);
+    }
+
+    public Mono<PersonPage> getPersonPage(int limit, String cursor, boolean includeTotal) {
+        return Mono.defer(() -> {
+            PersonUtil.validatePageSize(limit);
+            int afterId = PersonUtil.parseCursor(cursor);
+
+            Mono<List<Person>> persons = personRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit + 1)).collectList();
+            Mono<Long> total = includeTotal ? personRepository.count() : Mono.just(-1L);
+            return Mono.zip(persons, total).map(result -> {
+                boolean hasMore = result.getT1().size() > limit;
+                List<Person> page = hasMore ? result.getT1().subList(0, limit) : result.getT1();
+                return PersonPage.builder()
+                        .persons(page.stream().map(PersonUtil::convertToDto).toList())
+                        .nextCursor(hasMore ? String.valueOf(page.get(page.size() - 1).getId()) : null)
+                        .total(includeTotal ? result.getT2() : null)
+                        .build();
+            });
+        });
+    }
+
+    public Mono<PersonResponse> getPersonByID(int id) {
+        return personRepository.findById(id)
+                .map(PersonUtil::convertToDto)
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException("Person with ID " + id + " not found!")));
+    }
+
+    public Mono<String> createPerson(PersonRequest personRequest) {
+        return Mono.fromCallable(() -> PersonUtil.createPersonInstance(personRequest))
+                .flatMap(person -> idAllocator.nextId().map(id -> {
+                    person.setId(id);
+                    return person;
+                }))
+                .flatMap(personRepository::insert)
+                .doOnNext(searchIndex::add)
+                .map(savedPerson -> "Person with id " + savedPerson.getId() + " added successfully!");
+    }
+
+    /**
+     * Rejects an invalid color right away rather than through the returned {@link Flux}, so that the
+     * caller can answer with an error status before it starts streaming the result.
+     */
+    public Flux<PersonResponse> fetchPersonByColor(String color) {
+        return personRepository.findAllByColor(parseColor(color));
+    }
+
+    /**
+     * Validates the parameters right away, so an invalid range fails before the returned flux is subscribed.
+     */
+    public Flux<PersonResponse> fetchPersonsByZipcode(Long from, Long to, String prefix) {
+        ZipcodeRange range = PersonUtil.parseZipcodeRange(from, to, prefix);
+        return personRepository.findAllByZipcodeRange(range.from(), range.to());
+    }
+
+    /**
+     * Validates the criteria right away, like {@link #fetchPersonsByZipcode}.
+     */
+    public Flux<PersonResponse> filterPersons(String color, String city, Long zipFrom, Long zipTo, String zipPrefix, String lastnamePrefix) {
+        PersonFilter filter = PersonUtil.parseFilter(color, city, zipFrom, zipTo, zipPrefix, lastnamePrefix);
+        return mongoTemplate.find(PersonFilterQuery.of(filter), Person.class).map(PersonUtil::convertToDto);
+    }
+
+    /**
+     * Validates the query right away, like {@link #fetchPersonsByZipcode}, and emits the persons in rank order.
+     */
+    public Flux<PersonResponse> searchPersons(String query, int limit) {
+        PersonUtil.validateSearchQuery(query);
+        PersonUtil.validatePageSize(limit);
+        int[] ids = searchIndex.search(query, limit);
+        return personRepository.findAllById(Arrays.stream(ids).boxed().toList())
+                .collectMap(Person::getId)
+                .flatMapMany(found -> Flux.fromStream(Arrays.stream(ids).mapToObj(found::get).filter(Objects::nonNull)))
+                .map(PersonUtil::convertToDto);
+    }
+
+    public Mono<Map<String, Long>> countPersonsByColor() {
+        return personRepository.countPersonsByColor()
+                .collectMap(ColorCount::getColor, ColorCount::getCount)
+                .map(found -> {
+                    Map<String, Long> counts = new LinkedHashMap<>();
+                    for (Color color : Color.values()) {
+                        counts.put(color.name(), found.getOrDefault(color, 0L));
+                    }
+                    return counts;
+                });
+    }
+
+    private Color parseColor(String color) {
+        try {
+            return Color.valueOf(color);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid color value: " + color);
+        }
+    }
+}
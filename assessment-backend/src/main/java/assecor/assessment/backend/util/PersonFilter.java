@@ -0,0 +1,17 @@
+package assecor.assessment.backend.util;
+
+import assecor.assessment.backend.model.Color;
+
+/**
+ * Conjunction of the optional criteria of a person filter, see {@link PersonUtil#parseFilter}. A {@code null}
+ * component matches every person; at least one component is set.
+ */
+public record PersonFilter(Color color, String city, ZipcodeRange zipcodes, String lastnamePrefix) {
+
+    public boolean matches(String lastname, long zipcode, String city, Color color) {
+        return (this.color == null || this.color == color)
+                && (this.city == null || this.city.equals(city))
+                && (zipcodes == null || zipcode >= zipcodes.from() && zipcode <= zipcodes.to())
+                && (lastnamePrefix == null || lastname.startsWith(lastnamePrefix));
+    }
+}
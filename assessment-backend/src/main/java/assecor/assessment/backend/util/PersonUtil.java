@@ -10,11 +10,17 @@ import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class PersonUtil {
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int ZIPCODE_DIGITS = 5;
+
     public static PersonResponse convertToDto(Person person) {
         return PersonResponse.builder().id(person.getId()).lastname(person.getLastname()).firstname(person.getFirstname()).zipcode(person.getZipcode()).city(person.getCity()).color(person.getColor().name()).build();
     }
 
     public static Person createPersonInstance(PersonRequest personRequest) {
+        if (personRequest == null) {
+            throw new InvalidRequestException("Person request cannot be null");
+        }
         if (isInvalidPersonRequest(personRequest)) {
             throw new InvalidRequestException("Invalid person data: All fields must be filled correctly.");
         }
@@ -29,6 +35,83 @@ public class PersonUtil {
         }
     }
 
+    public static void validatePageSize(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidParamException("Invalid limit: " + limit + ", must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    public static void validateSearchQuery(String query) {
+        if (query == null || query.isBlank()) {
+            throw new InvalidParamException("Invalid search query: must not be blank");
+        }
+    }
+
+    /**
+     * A cursor is the id of the last person of the previous page; no cursor starts at the beginning.
+     */
+    public static int parseCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        try {
+            int lastId = Integer.parseInt(cursor);
+            if (lastId < 0) {
+                throw new InvalidParamException("Invalid cursor: " + cursor);
+            }
+            return lastId;
+        } catch (NumberFormatException e) {
+            throw new InvalidParamException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Either an inclusive range, where a missing bound is open, or a prefix of a {@value #ZIPCODE_DIGITS}-digit
+     * zipcode: prefix {@code 18} covers 18000 to 18999.
+     */
+    public static ZipcodeRange parseZipcodeRange(Long from, Long to, String prefix) {
+        if (prefix != null) {
+            if (from != null || to != null) {
+                throw new InvalidParamException("Use either a zipcode prefix or a from/to range");
+            }
+            if (prefix.isEmpty() || prefix.length() > ZIPCODE_DIGITS || !prefix.chars().allMatch(Character::isDigit)) {
+                throw new InvalidParamException("Invalid zipcode prefix: " + prefix + ", must be 1 to " + ZIPCODE_DIGITS + " digits");
+            }
+            long scale = (long) Math.pow(10, ZIPCODE_DIGITS - prefix.length());
+            long start = Long.parseLong(prefix) * scale;
+            return new ZipcodeRange(start, start + scale - 1);
+        }
+        if (from == null && to == null) {
+            throw new InvalidParamException("A zipcode prefix or a from/to range is required");
+        }
+        long start = from == null ? 0 : from;
+        long end = to == null ? Long.MAX_VALUE : to;
+        if (start < 0 || start > end) {
+            throw new InvalidParamException("Invalid zipcode range: " + start + " to " + end);
+        }
+        return new ZipcodeRange(start, end);
+    }
+
+    /**
+     * Combines the given criteria into one filter. City and lastname prefix are matched case-sensitively,
+     * the zipcode parameters follow {@link #parseZipcodeRange}.
+     */
+    public static PersonFilter parseFilter(String color, String city, Long zipFrom, Long zipTo, String zipPrefix, String lastnamePrefix) {
+        if (color == null && city == null && zipFrom == null && zipTo == null && zipPrefix == null && lastnamePrefix == null) {
+            throw new InvalidParamException("At least one of color, city, zipFrom, zipTo, zipPrefix or lastnamePrefix is required");
+        }
+        if (city != null && city.isBlank()) {
+            throw new InvalidParamException("Invalid city: must not be blank");
+        }
+        if (lastnamePrefix != null && lastnamePrefix.isEmpty()) {
+            throw new InvalidParamException("Invalid lastname prefix: must not be empty");
+        }
+        ZipcodeRange zipcodes = zipFrom == null && zipTo == null && zipPrefix == null
+                ? null
+                : parseZipcodeRange(zipFrom, zipTo, zipPrefix);
+        return new PersonFilter(color == null ? null : parseColor(color), city, zipcodes, lastnamePrefix);
+    }
+
     private static boolean isInvalidPersonRequest(PersonRequest personRequest) {
         return isNullOrEmpty(personRequest.getFirstname()) || isNullOrEmpty(personRequest.getLastname()) || personRequest.getZipcode() <= 0 || isNullOrEmpty(personRequest.getCity());
     }
@@ -0,0 +1,7 @@
+package assecor.assessment.backend.util;
+
+/**
+ * Inclusive range of zipcodes, see {@link PersonUtil#parseZipcodeRange}.
+ */
+public record ZipcodeRange(long from, long to) {
+}
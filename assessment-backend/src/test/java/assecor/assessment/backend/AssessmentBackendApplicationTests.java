@@ -1,13 +1,30 @@
 package assecor.assessment.backend;
 
+import assecor.assessment.backend.repository.ReactivePersonRepository;
+import com.mongodb.client.MongoClient;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @SpringBootTest
 class AssessmentBackendApplicationTests {
+    @Autowired
+    private ApplicationContext context;
 
     @Test
     void contextLoads() {
     }
 
+    @Test
+    void onlyTheBlockingStackIsCreatedTest() {
+        assertEquals(1, context.getBeanNamesForType(MongoClient.class).length);
+        assertEquals(0, context.getBeanNamesForType(com.mongodb.reactivestreams.client.MongoClient.class).length);
+        assertEquals(0, context.getBeanNamesForType(ReactiveMongoTemplate.class).length);
+        assertEquals(0, context.getBeanNamesForType(ReactivePersonRepository.class).length);
+    }
+
 }
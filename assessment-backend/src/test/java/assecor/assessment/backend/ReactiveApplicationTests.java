@@ -0,0 +1,30 @@
+package assecor.assessment.backend;
+
+import assecor.assessment.backend.repository.PersonIdAllocator;
+import assecor.assessment.backend.repository.ReactivePersonIdAllocator;
+import assecor.assessment.backend.service.PersonService;
+import assecor.assessment.backend.service.ReactivePersonService;
+import com.mongodb.client.MongoClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+class ReactiveApplicationTests {
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    void onlyTheReactiveStackIsCreatedTest() {
+        assertEquals(1, context.getBeanNamesForType(ReactivePersonService.class).length);
+        assertEquals(1, context.getBeanNamesForType(ReactivePersonIdAllocator.class).length);
+        assertEquals(0, context.getBeanNamesForType(PersonService.class).length);
+        assertEquals(0, context.getBeanNamesForType(PersonIdAllocator.class).length);
+        assertEquals(0, context.getBeanNamesForType(MongoTemplate.class).length);
+        assertEquals(0, context.getBeanNamesForType(MongoClient.class).length);
+    }
+}
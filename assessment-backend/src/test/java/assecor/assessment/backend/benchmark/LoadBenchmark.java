@@ -0,0 +1,109 @@
+package assecor.assessment.backend.benchmark;
+
+import assecor.assessment.backend.AssessmentBackendApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares request handling on platform threads and on virtual threads. The application is started once per
+ * mode ({@code spring.threads.virtual.enabled=false/true}) and loaded by many concurrent clients that each
+ * send one request after the other; throughput and latency percentiles are printed per mode.
+ * <p>
+ * Not a unit test. Run it from the test classpath, e.g.
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=assecor.assessment.backend.benchmark.LoadBenchmark -Dexec.args="1000 20 /persons/1"}
+ * with the arguments {@code [clients] [seconds] [path]}. Paths below {@code /api} need a running MongoDB.
+ */
+public class LoadBenchmark {
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        Duration duration = Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 20);
+        String path = args.length > 2 ? args[2] : "/persons/1";
+
+        List<String> results = new ArrayList<>();
+        for (boolean virtual : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(AssessmentBackendApplication.class)
+                    .properties("server.port=0", "spring.threads.virtual.enabled=" + virtual, "logging.level.root=WARN")
+                    .run()) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                URI uri = URI.create("http://localhost:" + port + path);
+                run(uri, clients, WARMUP);
+                Result result = run(uri, clients, duration);
+                results.add(String.format("%-9s %,10.0f req/s  p50 %7.2f ms  p99 %7.2f ms  p99.9 %7.2f ms  errors %d",
+                        virtual ? "virtual" : "platform", result.throughput(duration), result.percentile(50),
+                        result.percentile(99), result.percentile(99.9), result.errors));
+            }
+        }
+        System.out.printf("%d clients, %d s, GET %s%n", clients, duration.toSeconds(), path);
+        results.forEach(System.out::println);
+        // the MongoDB driver may keep a Netty event loop alive after the contexts are closed
+        System.exit(0);
+    }
+
+    private static Result run(URI uri, int clients, Duration duration) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(executor).build();
+            List<Future<long[]>> futures = new ArrayList<>(clients);
+            for (int i = 0; i < clients; i++) {
+                futures.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+            List<long[]> perClient = new ArrayList<>(clients);
+            for (Future<long[]> future : futures) {
+                perClient.add(future.get());
+            }
+            long[] all = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            return new Result(all, errors.get());
+        }
+    }
+
+    private record Result(long[] sortedLatencies, long errors) {
+        double throughput(Duration duration) {
+            return sortedLatencies.length / (double) duration.toSeconds();
+        }
+
+        double percentile(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.min(sortedLatencies.length - 1, Math.ceil(percentile / 100 * sortedLatencies.length) - 1);
+            return sortedLatencies[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package assecor.assessment.backend.cache;
+
+import assecor.assessment.backend.dto.PersonResponse;
+import assecor.assessment.backend.model.Color;
+import assecor.assessment.backend.model.Person;
+import assecor.assessment.backend.util.PersonFilter;
+import assecor.assessment.backend.util.ZipcodeRange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarPersonSnapshotTest {
+
+    private List<Person> persons;
+
+    @BeforeEach
+    void setUp() {
+        persons = new ArrayList<>();
+        for (int id = 1; id <= 40; id++) {
+            persons.add(Person.builder()
+                    .id(id)
+                    .lastname(id % 2 == 0 ? "Müller" : "Schmidt")
+                    .firstname("Hans")
+                    .zipcode(10000 + id)
+                    .city(id % 3 == 0 ? "Berlin" : "made up")
+                    .color(Color.getColor(id % 7 + 1))
+                    .build());
+        }
+    }
+
+    @Test
+    void readsTheSameRowsAsTheRowLayoutTest() {
+        PersonSnapshot rows = new RowPersonSnapshot(1, persons);
+        PersonSnapshot columns = new ColumnarPersonSnapshot(1, persons);
+
+        assertEquals(rows.size(), columns.size());
+        assertEquals(rows.getPersons(), columns.getPersons());
+        assertEquals(rows.findAfter(10, 5), columns.findAfter(10, 5));
+        assertEquals(rows.findById(17), columns.findById(17));
+        assertNull(columns.findById(0));
+        assertNull(columns.findById(41));
+        for (Color color : Color.values()) {
+            assertEquals(rows.findByColor(color), columns.findByColor(color));
+        }
+        assertEquals(rows.countByColor(), columns.countByColor());
+    }
+
+    @Test
+    void storesEachDistinctStringOnceTest() {
+        ColumnarPersonSnapshot columns = new ColumnarPersonSnapshot(1, persons);
+
+        assertEquals(5, columns.distinctStrings());
+        assertSame(columns.findById(2).getLastname(), columns.findById(4).getLastname());
+    }
+
+    @Test
+    void appendKeepsEarlierSnapshotsUnchangedTest() {
+        ColumnarPersonSnapshot first = new ColumnarPersonSnapshot(1, persons);
+        Person added = Person.builder().lastname("Neu").firstname("Anna").zipcode(10115).city("Hamburg").color(Color.rot).build();
+
+        ColumnarPersonSnapshot second = first.append(added, 2);
+        ColumnarPersonSnapshot third = second.append(added, 3);
+
+        assertEquals(40, first.size());
+        assertNull(first.findById(41));
+        assertEquals(42, third.size());
+        assertEquals(3, third.getVersion());
+        PersonResponse appended = third.findById(42);
+        assertEquals(42, appended.getId());
+        assertEquals("Neu", appended.getLastname());
+        assertEquals("Anna", appended.getFirstname());
+        assertEquals(10115, appended.getZipcode());
+        assertEquals("Hamburg", appended.getCity());
+        assertEquals("rot", appended.getColor());
+        assertEquals(first.countByColor().get(Color.rot) + 1, second.countByColor().get(Color.rot));
+        assertEquals(second.findByColor(Color.rot).size() + 1, third.findByColor(Color.rot).size());
+    }
+
+    @Test
+    void staleCopySharesRowsTest() {
+        ColumnarPersonSnapshot snapshot = new ColumnarPersonSnapshot(4, persons);
+
+        ColumnarPersonSnapshot stale = snapshot.stale();
+
+        assertFalse(snapshot.isStale());
+        assertTrue(stale.isStale());
+        assertSame(stale, stale.stale());
+        assertEquals(4, stale.getVersion());
+        assertEquals(snapshot.getPersons(), stale.getPersons());
+        assertTrue(stale.append(persons.get(0), 5).isStale());
+    }
+
+    @Test
+    void findByZipcodeTest() {
+        for (PersonSnapshot snapshot : List.of(new RowPersonSnapshot(1, persons), new ColumnarPersonSnapshot(1, persons))) {
+            List<PersonResponse> found = snapshot.findByZipcode(10005, 10008);
+            assertEquals(List.of(5, 6, 7, 8), found.stream().map(PersonResponse::getId).toList());
+            assertTrue(snapshot.findByZipcode(20000, 30000).isEmpty());
+            assertEquals(40, snapshot.findByZipcode(0, Long.MAX_VALUE).size());
+        }
+    }
+
+    @Test
+    void findByZipcodeCoversRowsAppendedAfterIndexingTest() {
+        PersonSnapshot snapshot = new ColumnarPersonSnapshot(1, persons);
+        assertEquals(1, snapshot.findByZipcode(10010, 10010).size());
+
+        for (int i = 0; i < 2000; i++) {
+            Person added = Person.builder().lastname("Neu").firstname("Anna").zipcode(i % 2 == 0 ? 10010 : 5).city("x").color(Color.rot).build();
+            snapshot = snapshot.append(added, i + 2);
+            if (i == 0) {
+                List<PersonResponse> found = snapshot.findByZipcode(10009, 10010);
+                assertEquals(List.of(9, 10, 41), found.stream().map(PersonResponse::getId).toList());
+            }
+        }
+
+        List<PersonResponse> found = snapshot.findByZipcode(5, 10010);
+        assertEquals(2000 + 10, found.size());
+        assertEquals(42, found.get(0).getId());
+        assertEquals(5, found.get(999).getZipcode());
+        assertEquals(10001, found.get(1000).getZipcode());
+        assertEquals(List.of(10, 41, 43), found.subList(1009, 1012).stream().map(PersonResponse::getId).toList());
+    }
+
+    @Test
+    void filterIntersectsAllCriteriaTest() {
+        List<PersonFilter> filters = List.of(
+                new PersonFilter(Color.blau, null, null, null),
+                new PersonFilter(null, "Berlin", null, null),
+                new PersonFilter(Color.blau, "Berlin", null, null),
+                new PersonFilter(null, "Berlin", new ZipcodeRange(10010, 10030), null),
+                new PersonFilter(null, "made up", new ZipcodeRange(10001, 10002), "Sch"),
+                new PersonFilter(Color.rot, null, new ZipcodeRange(0, Long.MAX_VALUE), "M"),
+                new PersonFilter(null, null, null, "Mü"),
+                new PersonFilter(null, "Hamburg", null, null));
+        for (PersonSnapshot snapshot : List.of(new RowPersonSnapshot(1, persons), new ColumnarPersonSnapshot(1, persons))) {
+            for (PersonFilter filter : filters) {
+                List<Integer> expected = persons.stream()
+                        .filter(person -> filter.matches(person.getLastname(), person.getZipcode(), person.getCity(), person.getColor()))
+                        .map(Person::getId)
+                        .toList();
+                assertEquals(expected, snapshot.filter(filter).stream().map(PersonResponse::getId).toList(), filter.toString());
+            }
+        }
+        assertEquals(List.of(3, 24), new ColumnarPersonSnapshot(1, persons).filter(new PersonFilter(Color.getColor(4), "Berlin", null, null))
+                .stream().map(PersonResponse::getId).toList());
+    }
+
+    @Test
+    void searchOnlySeesTheRowsOfTheSnapshotTest() {
+        for (PersonSnapshot first : List.of(new RowPersonSnapshot(1, persons), new ColumnarPersonSnapshot(1, persons))) {
+            assertEquals(List.of(2, 4, 6), first.search("Muller", 3).stream().map(PersonResponse::getId).toList());
+
+            Person added = Person.builder().id(41).lastname("Müllerová").firstname("Anna").zipcode(10115).city("Hamburg").color(Color.rot).build();
+            PersonSnapshot second = first.append(added, 2);
+
+            assertEquals(List.of(41), second.search("mullerova", 5).stream().map(PersonResponse::getId).toList());
+            assertTrue(first.search("mullerova", 5).isEmpty());
+            assertEquals(21, second.search("mull", 100).size());
+            assertEquals(List.of(41), second.search("anna mull", 5).stream().map(PersonResponse::getId).toList());
+        }
+    }
+
+    @Test
+    void filterCoversRowsAppendedAfterIndexingTest() {
+        PersonSnapshot snapshot = new ColumnarPersonSnapshot(1, persons);
+        PersonFilter filter = new PersonFilter(Color.rot, "Hamburg", null, null);
+        assertTrue(snapshot.filter(filter).isEmpty());
+
+        for (int i = 0; i < 2000; i++) {
+            Person added = Person.builder().lastname("Neu").firstname("Anna").zipcode(10115).city(i % 2 == 0 ? "Hamburg" : "Berlin").color(Color.rot).build();
+            snapshot = snapshot.append(added, i + 2);
+            if (i == 0) {
+                assertEquals(List.of(41), snapshot.filter(filter).stream().map(PersonResponse::getId).toList());
+            }
+        }
+
+        List<PersonResponse> found = snapshot.filter(filter);
+        assertEquals(1000, found.size());
+        assertEquals(41, found.get(0).getId());
+        assertEquals(2039, found.get(999).getId());
+        assertEquals(1000, snapshot.filter(new PersonFilter(null, "Hamburg", new ZipcodeRange(10115, 10115), "Ne")).size());
+    }
+}
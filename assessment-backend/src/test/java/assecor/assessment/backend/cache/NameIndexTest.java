@@ -0,0 +1,63 @@
+package assecor.assessment.backend.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameIndexTest {
+
+    private NameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new NameIndex();
+        index.add(1, "Müller", "Hans");
+        index.add(2, "Mullerson", "Anna");
+        index.add(3, "Muller", "Jörg-Peter");
+        index.add(4, "Schäfer", "Hans");
+        index.add(5, "Möller", "Klaus");
+        index.add(6, "Straße", "Ümit");
+    }
+
+    @Test
+    void foldsCaseAndDiacriticsTest() {
+        assertEquals("muller", NameIndex.fold("MÜLLER"));
+        assertEquals("strasse", NameIndex.fold("Straße"));
+        assertEquals(List.of("jorg", "peter"), NameIndex.words(" Jörg-Peter "));
+        assertArrayEquals(new int[]{6}, index.search("umit", 10, id -> true));
+        assertArrayEquals(new int[]{6}, index.search("STRASSE", 10, id -> true));
+    }
+
+    @Test
+    void ranksExactBeforePrefixBeforeFuzzyMatchesTest() {
+        assertArrayEquals(new int[]{1, 3, 2, 5}, index.search("Muller", 10, id -> true));
+        assertArrayEquals(new int[]{1, 3}, index.search("Muller", 2, id -> true));
+        assertArrayEquals(new int[]{4}, index.search("schafr", 10, id -> true));
+        assertArrayEquals(new int[]{3}, index.search("pet", 10, id -> true));
+        assertArrayEquals(new int[0], index.search("xyz", 10, id -> true));
+        assertArrayEquals(new int[0], index.search("--", 10, id -> true));
+    }
+
+    @Test
+    void requiresEveryWordOfTheQueryTest() {
+        index.add(7, "Hans", "Möller");
+
+        assertArrayEquals(new int[]{1, 4, 7}, index.search("hans", 10, id -> true));
+        assertArrayEquals(new int[]{1, 7}, index.search("hans muller", 10, id -> true));
+        assertArrayEquals(new int[]{7, 1}, index.search("hans moller", 10, id -> true));
+        assertArrayEquals(new int[]{3}, index.search("mull jorg", 10, id -> true));
+        assertArrayEquals(new int[0], index.search("hans klaus", 10, id -> true));
+    }
+
+    @Test
+    void onlyReturnsVisibleIdsAndIgnoresDuplicatesTest() {
+        index.add(1, "Other", "Name");
+
+        assertArrayEquals(new int[]{1, 3}, index.search("Muller", 10, id -> id <= 3 && id != 2));
+        assertArrayEquals(new int[0], index.search("other", 10, id -> true));
+        assertEquals(6, index.size());
+    }
+}
@@ -0,0 +1,92 @@
+package assecor.assessment.backend.config;
+
+import assecor.assessment.backend.dto.PersonRequest;
+import assecor.assessment.backend.dto.PersonResponse;
+import assecor.assessment.backend.model.Color;
+import assecor.assessment.backend.model.Person;
+import assecor.assessment.backend.repository.PersonIdAllocator;
+import assecor.assessment.backend.repository.PersonRepository;
+import assecor.assessment.backend.service.PersonSearchIndex;
+import assecor.assessment.backend.service.PersonService;
+import assecor.assessment.backend.util.PersonUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringJUnitWebConfig
+@Import({CacheConfig.class, PersonService.class, PersonProperties.class, SimpleMeterRegistry.class})
+class CacheConfigTest {
+    @MockitoBean
+    private PersonRepository personRepository;
+
+    @MockitoBean
+    private PersonIdAllocator idAllocator;
+
+    @MockitoBean
+    private MongoTemplate mongoTemplate;
+
+    @MockitoBean
+    private PersonSearchIndex searchIndex;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final Person person = Person.builder()
+            .id(7)
+            .lastname("Hans")
+            .firstname("Müller")
+            .zipcode(12345)
+            .city("berlin")
+            .color(Color.blau)
+            .build();
+
+    @BeforeEach
+    void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void repeatedLookupsAreServedFromTheCacheTest() {
+        when(personRepository.findById(7)).thenReturn(Optional.of(person));
+        when(personRepository.findAllByColor(Color.blau)).thenReturn(List.of(PersonUtil.convertToDto(person)));
+
+        PersonResponse first = personService.getPersonByID(7);
+        assertEquals(first, personService.getPersonByID(7));
+        personService.fetchPersonByColor("blau");
+        personService.fetchPersonByColor("blau");
+
+        verify(personRepository, times(1)).findById(7);
+        verify(personRepository, times(1)).findAllByColor(Color.blau);
+    }
+
+    @Test
+    void createPersonReloadsItsColorTest() {
+        when(personRepository.findAllByColor(Color.blau)).thenReturn(List.of());
+        when(idAllocator.nextId()).thenReturn(8);
+        when(personRepository.insert(any(Person.class))).thenReturn(person);
+
+        personService.fetchPersonByColor("blau");
+        personService.createPerson(PersonRequest.builder().lastname("Hans").firstname("Müller").zipcode(12345).city("berlin").colorID(1).build());
+        personService.fetchPersonByColor("blau");
+
+        verify(personRepository, times(2)).findAllByColor(Color.blau);
+    }
+}
@@ -1,12 +1,23 @@
 package assecor.assessment.backend.controller;
 
+import assecor.assessment.backend.cache.JsonResponseCache;
+import assecor.assessment.backend.dto.BatchResponse;
+import assecor.assessment.backend.dto.CacheStatsResponse;
+import assecor.assessment.backend.dto.ImportJobStatus;
+import assecor.assessment.backend.dto.PersonPage;
 import assecor.assessment.backend.dto.PersonRequest;
+import assecor.assessment.backend.dto.SyncResponse;
 import assecor.assessment.backend.exception.EntityNotFoundException;
+import assecor.assessment.backend.exception.TooManyImportsException;
+import assecor.assessment.backend.exception.UploadTooLargeException;
+import assecor.assessment.backend.exception.InvalidParamException;
 import assecor.assessment.backend.exception.InvalidRequestException;
 import assecor.assessment.backend.model.Color;
 import assecor.assessment.backend.model.Person;
 import assecor.assessment.backend.service.FileService;
+import assecor.assessment.backend.service.PersonImportService;
 import assecor.assessment.backend.service.PersonService;
+import assecor.assessment.backend.service.PersonSyncService;
 import assecor.assessment.backend.util.PersonUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.hamcrest.CoreMatchers;
@@ -17,17 +28,35 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
-
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 
 @WebMvcTest(controllers = PersonController.class)
@@ -44,6 +73,14 @@ class PersonControllerTest {
     @MockitoBean
     private FileService fileService;
 
+    @MockitoBean
+    private PersonImportService importService;
+
+    @MockitoBean
+    private PersonSyncService syncService;
+
+
+    private final JsonResponseCache responseCache = new JsonResponseCache(new ObjectMapper());
 
     private Person person;
     private PersonRequest personRequest;
@@ -71,11 +108,12 @@ class PersonControllerTest {
     //    Test Controller from FileSystem
     @Test
     void getAllPersonsFromFileSystemTest() throws Exception {
-        when(fileService.getAllPerson()).thenReturn(Collections.singletonList(PersonUtil.convertToDto(person)));
+        when(fileService.getAllPersonJson()).thenReturn(responseCache.get("persons", 1, () -> List.of(PersonUtil.convertToDto(person))));
 
         ResultActions response = mockMvc.perform(get("/persons").contentType(MediaType.APPLICATION_JSON));
 
         response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().exists("ETag"))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(1))
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(1))
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].lastname").value("Hans"))
@@ -85,6 +123,45 @@ class PersonControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].color").value("blau"));
     }
 
+    @Test
+    void getPersonPageFromFileSystemTest() throws Exception {
+        PersonPage page = new PersonPage(List.of(PersonUtil.convertToDto(person)), "1", 9L);
+        when(fileService.getPersonPage(1, null, true)).thenReturn(page);
+
+        ResultActions response = mockMvc.perform(get("/persons").param("limit", "1").param("total", "true"));
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.persons.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.persons[0].id").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").value("1"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.total").value(9));
+    }
+
+    @Test
+    void getPersonPageInvalidLimitFromFileSystemTest() throws Exception {
+        when(fileService.getPersonPage(eq(0), any(), eq(false))).thenThrow(new InvalidParamException("Invalid limit: 0"));
+
+        mockMvc.perform(get("/persons").param("limit", "0"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string("Invalid limit: 0"));
+    }
+
+    @Test
+    void exportAllPersonsFromFileSystemTest() throws Exception {
+        when(fileService.streamAllPerson()).thenReturn(Stream.of(PersonUtil.convertToDto(person), PersonUtil.convertToDto(person)));
+
+        MvcResult result = mockMvc.perform(get("/persons/export").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.content().string(CoreMatchers.startsWith("{\"id\":1,\"lastname\":\"Hans\"")))
+                .andExpect(MockMvcResultMatchers.content().string(CoreMatchers.endsWith("}\n")));
+        verify(fileService, times(1)).streamAllPerson();
+    }
+
     @Test
     void getPersonByIdSuccessFromFileSystemTest() throws Exception {
         when(fileService.getPersonById(any(Integer.class))).thenReturn(PersonUtil.convertToDto(person));
@@ -110,9 +187,37 @@ class PersonControllerTest {
                 .andExpect(MockMvcResultMatchers.content().string(CoreMatchers.containsString("Could not find person with id 1")));
     }
 
+    @Test
+    void getAllPersonsFromFileSystemNotModifiedTest() throws Exception {
+        when(fileService.getAllPersonJson()).thenReturn(responseCache.get("persons", 1, () -> {
+            throw new AssertionError("body must not be serialized");
+        }));
+        String etag = fileService.getAllPersonJson().getEtag();
+
+        mockMvc.perform(get("/persons").header("If-None-Match", "\"other\", \"" + etag + "\""))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"" + etag + "\""))
+                .andExpect(MockMvcResultMatchers.content().bytes(new byte[0]));
+    }
+
+    @Test
+    void getAllPersonsFromFileSystemGzipTest() throws Exception {
+        when(fileService.getAllPersonJson()).thenReturn(responseCache.get("persons", 2, () -> List.of(PersonUtil.convertToDto(person))));
+
+        MvcResult result = mockMvc.perform(get("/persons").header("Accept-Encoding", "deflate, gzip;q=0.8"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("Content-Encoding", "gzip"))
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"" + fileService.getAllPersonJson().getGzipEtag() + "\""))
+                .andReturn();
+
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            assertTrue(new String(body.readAllBytes(), StandardCharsets.UTF_8).contains("\"lastname\":\"Hans\""));
+        }
+    }
+
     @Test
     void getPersonsByColorFromFileSystemTest() throws Exception {
-        when(fileService.getPersonsByColor(any(String.class))).thenReturn(Collections.singletonList(PersonUtil.convertToDto(person)));
+        when(fileService.getPersonsByColorJson(any(String.class))).thenReturn(responseCache.get("color/blau", 1, () -> List.of(PersonUtil.convertToDto(person))));
 
         ResultActions response = mockMvc.perform(get("/persons/color/blau").contentType(MediaType.APPLICATION_JSON));
 
@@ -128,7 +233,7 @@ class PersonControllerTest {
 
     @Test
     void getPersonsByColorThrowErrorFromFileSystemTest() throws Exception {
-        when(fileService.getPersonsByColor(any(String.class))).thenThrow(new EntityNotFoundException("Could not find person with color blau"));
+        when(fileService.getPersonsByColorJson(any(String.class))).thenThrow(new EntityNotFoundException("Could not find person with color blau"));
 
         ResultActions response = mockMvc.perform(get("/persons/color/blau").contentType(MediaType.APPLICATION_JSON));
 
@@ -137,6 +242,88 @@ class PersonControllerTest {
 
     }
 
+    @Test
+    void getPersonsByZipcodeFromFileSystemTest() throws Exception {
+        when(fileService.getPersonsByZipcode(12000L, 12999L, null)).thenReturn(List.of(PersonUtil.convertToDto(person)));
+
+        mockMvc.perform(get("/persons/zip").param("from", "12000").param("to", "12999"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].zipcode").value(12345));
+    }
+
+    @Test
+    void getPersonsByZipcodeInvalidFromFileSystemTest() throws Exception {
+        when(fileService.getPersonsByZipcode(null, null, "1x")).thenThrow(new InvalidParamException("Invalid zipcode prefix: 1x"));
+
+        mockMvc.perform(get("/persons/zip").param("prefix", "1x"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string("Invalid zipcode prefix: 1x"));
+    }
+
+    @Test
+    void filterPersonsFromFileSystemTest() throws Exception {
+        when(fileService.filterPersons("blau", "SomeCity", null, null, "12", "Mü")).thenReturn(List.of(PersonUtil.convertToDto(person)));
+
+        mockMvc.perform(get("/persons/filter").param("color", "blau").param("city", "SomeCity").param("zipPrefix", "12").param("lastnamePrefix", "Mü"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].zipcode").value(12345));
+    }
+
+    @Test
+    void filterPersonsWithoutCriteriaFromFileSystemTest() throws Exception {
+        when(fileService.filterPersons(null, null, null, null, null, null)).thenThrow(new InvalidParamException("At least one filter is required"));
+
+        mockMvc.perform(get("/persons/filter"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string("At least one filter is required"));
+    }
+
+    @Test
+    void searchPersonsFromFileSystemTest() throws Exception {
+        when(fileService.searchPersons("mul", 20)).thenReturn(List.of(PersonUtil.convertToDto(person)));
+
+        mockMvc.perform(get("/persons/search").param("q", "mul"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(1));
+    }
+
+    @Test
+    void searchPersonsWithoutQueryFromFileSystemTest() throws Exception {
+        when(fileService.searchPersons(null, 5)).thenThrow(new InvalidParamException("Invalid search query: must not be blank"));
+
+        mockMvc.perform(get("/persons/search").param("limit", "5"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string("Invalid search query: must not be blank"));
+    }
+
+    @Test
+    void countPersonsByColorFromFileSystemTest() throws Exception {
+        when(fileService.countPersonsByColor()).thenReturn(Map.of("blau", 2L));
+
+        ResultActions response = mockMvc.perform(get("/persons/color-counts").contentType(MediaType.APPLICATION_JSON));
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.blau").value(2));
+    }
+
+    @Test
+    void getCacheStatsFromFileSystemTest() throws Exception {
+        when(fileService.getCacheStats()).thenReturn(new CacheStatsResponse(3, 9, false, 10, 1, 2, 2));
+
+        ResultActions response = mockMvc.perform(get("/persons/cache").contentType(MediaType.APPLICATION_JSON));
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.version").value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.size").value(9))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.stale").value(false))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.hits").value(10))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.staleReads").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.misses").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.reloads").value(2));
+    }
+
     @Test
     void addPersonSuccessFromFileSystemTest() throws Exception {
         String expectedResponse = "Person added successfully";
@@ -232,6 +419,35 @@ class PersonControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].color").value("blau"));
     }
 
+    @Test
+    void getPersonPageFromPersonSystemTest() throws Exception {
+        PersonPage page = new PersonPage(List.of(PersonUtil.convertToDto(person)), null, null);
+        when(personService.getPersonPage(5, "3", false)).thenReturn(page);
+
+        ResultActions response = mockMvc.perform(get("/api/persons").param("limit", "5").param("cursor", "3"));
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.persons[0].lastname").value("Hans"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.total").doesNotExist());
+    }
+
+    @Test
+    void exportAllPersonsFromPersonSystemTest() throws Exception {
+        AtomicBoolean cursorClosed = new AtomicBoolean();
+        when(personService.streamAllPersons()).thenReturn(Stream.of(PersonUtil.convertToDto(person)).onClose(() -> cursorClosed.set(true)));
+
+        MvcResult result = mockMvc.perform(get("/api/persons/export").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.content().string(CoreMatchers.containsString("\"city\":\"berlin\"")));
+        assertTrue(cursorClosed.get());
+    }
+
     @Test
     void getPersonByIdSuccessFromPersonSystemTest() throws Exception {
         when(personService.getPersonByID(any(Integer.class))).thenReturn(PersonUtil.convertToDto(person));
@@ -257,6 +473,33 @@ class PersonControllerTest {
                 .andExpect(MockMvcResultMatchers.content().string(CoreMatchers.containsString("Could not find person with id 1")));
     }
 
+    @Test
+    void getPersonsByZipcodeFromPersonSystemTest() throws Exception {
+        when(personService.fetchPersonsByZipcode(null, null, "12")).thenReturn(List.of(PersonUtil.convertToDto(person)));
+
+        mockMvc.perform(get("/api/persons/zip").param("prefix", "12"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(1));
+    }
+
+    @Test
+    void filterPersonsFromPersonSystemTest() throws Exception {
+        when(personService.filterPersons(null, null, 12000L, 12999L, null, null)).thenReturn(List.of(PersonUtil.convertToDto(person)));
+
+        mockMvc.perform(get("/api/persons/filter").param("zipFrom", "12000").param("zipTo", "12999"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(1));
+    }
+
+    @Test
+    void searchPersonsFromPersonSystemTest() throws Exception {
+        when(personService.searchPersons("hans", 3)).thenReturn(List.of(PersonUtil.convertToDto(person)));
+
+        mockMvc.perform(get("/api/persons/search").param("q", "hans").param("limit", "3"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(1));
+    }
+
     @Test
     void getPersonsByColorFromPersonSystemTest() throws Exception {
         when(personService.fetchPersonByColor(any(String.class))).thenReturn(Collections.singletonList(PersonUtil.convertToDto(person)));
@@ -284,6 +527,16 @@ class PersonControllerTest {
 
     }
 
+    @Test
+    void countPersonsByColorFromPersonSystemTest() throws Exception {
+        when(personService.countPersonsByColor()).thenReturn(Map.of("rot", 5L));
+
+        ResultActions response = mockMvc.perform(get("/api/persons/color-counts").contentType(MediaType.APPLICATION_JSON));
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.rot").value(5));
+    }
+
     @Test
     void addPersonSuccessFromPersonSystemTest() throws Exception {
         String expectedResponse = "Person added successfully";
@@ -298,6 +551,16 @@ class PersonControllerTest {
         verify(personService, times(1)).createPerson(any(PersonRequest.class));
     }
 
+    @Test
+    void addPersonWithTakenIdConflictTest() throws Exception {
+        when(personService.createPerson(any(PersonRequest.class))).thenThrow(new DuplicateKeyException("E11000 duplicate key error"));
+
+        mockMvc.perform(post("/api/persons")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(personRequest)))
+                .andExpect(MockMvcResultMatchers.status().isConflict());
+    }
+
     @Test
     void addPersonFailFromPersonSystemTest() throws Exception {
         String expectedFailResponse = "Could not add person";
@@ -361,4 +624,126 @@ class PersonControllerTest {
         verify(personService, times(1)).createPerson(any(PersonRequest.class));
     }
 
-}
\ No newline at end of file
+    @Test
+    void addPersonsFromJsonArrayTest() throws Exception {
+        when(personService.createPersons(any())).thenAnswer(invocation -> countBatch(invocation.getArgument(0)));
+
+        mockMvc.perform(post("/api/persons/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(List.of(personRequest, personRequest))))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.received").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.inserted").value(2));
+    }
+
+    @Test
+    void addPersonsFromNdjsonTest() throws Exception {
+        when(personService.createPersons(any())).thenAnswer(invocation -> countBatch(invocation.getArgument(0)));
+        String line = new ObjectMapper().writeValueAsString(personRequest);
+
+        mockMvc.perform(post("/api/persons/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(line + "\n" + line + "\n" + line + "\n"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.received").value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.failures").isEmpty());
+    }
+
+    @Test
+    void importPersonsFromMultipartUploadTest() throws Exception {
+        when(importService.startImport(any(MultipartFile.class))).thenAnswer(invocation -> startedImport(invocation.<MultipartFile>getArgument(0).getInputStream()));
+        MockMultipartFile file = new MockMultipartFile("file", "persons.csv", "text/csv",
+                "Müller, Hans, 67742 Lauterecken, 1\n".getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(multipart("/api/persons/import").file(file))
+                .andExpect(MockMvcResultMatchers.status().isAccepted())
+                .andExpect(MockMvcResultMatchers.header().string("Location", "/api/persons/import/job-36"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.state").value("RUNNING"));
+    }
+
+    @Test
+    void importPersonsFromCsvBodyTest() throws Exception {
+        when(importService.startImport(any(), eq(36L))).thenAnswer(invocation -> startedImport(invocation.getArgument(0)));
+
+        mockMvc.perform(post("/api/persons/import")
+                        .contentType("text/csv")
+                        .content("Müller, Hans, 67742 Lauterecken, 1\n"))
+                .andExpect(MockMvcResultMatchers.status().isAccepted())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value("job-36"));
+    }
+
+    @Test
+    void importPersonsAboveTheSizeLimitTest() throws Exception {
+        when(importService.startImport(any(), eq(36L))).thenThrow(new UploadTooLargeException("Upload of 36 bytes exceeds the limit of 10 bytes"));
+
+        mockMvc.perform(post("/api/persons/import")
+                        .contentType("text/csv")
+                        .content("Müller, Hans, 67742 Lauterecken, 1\n"))
+                .andExpect(MockMvcResultMatchers.status().isPayloadTooLarge());
+    }
+
+    @Test
+    void importPersonsWhileTooManyImportsRunTest() throws Exception {
+        when(importService.startImport(any(), eq(36L))).thenThrow(new TooManyImportsException("100 imports are running, try again later"));
+
+        mockMvc.perform(post("/api/persons/import")
+                        .contentType("text/csv")
+                        .content("Müller, Hans, 67742 Lauterecken, 1\n"))
+                .andExpect(MockMvcResultMatchers.status().isTooManyRequests());
+    }
+
+    @Test
+    void fetchImportStatusTest() throws Exception {
+        when(importService.getImportStatus("job-1")).thenReturn(ImportJobStatus.builder()
+                .id("job-1").state(ImportJobStatus.State.COMPLETED).parsed(10).skipped(1).inserted(9).failed(1).failures(List.of()).build());
+
+        mockMvc.perform(get("/api/persons/import/job-1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.state").value("COMPLETED"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.inserted").value(9))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.skipped").value(1));
+    }
+
+    @Test
+    void fetchImportStatusOfUnknownJobTest() throws Exception {
+        when(importService.getImportStatus("job-2")).thenThrow(new EntityNotFoundException("Import job job-2 not found!"));
+
+        mockMvc.perform(get("/api/persons/import/job-2"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    void syncPersonsTest() throws Exception {
+        when(syncService.sync()).thenReturn(SyncResponse.builder().csvRows(10).unchanged(7).inserted(1).updated(2).deleted(3).build());
+
+        mockMvc.perform(post("/api/persons/sync"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.unchanged").value(7))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.updated").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.deleted").value(3));
+    }
+
+    @Test
+    void fetchLastSyncBeforeAnySyncTest() throws Exception {
+        when(syncService.getLastSync()).thenThrow(new EntityNotFoundException("No sync has run yet!"));
+
+        mockMvc.perform(get("/api/persons/sync"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    /**
+     * Reads the upload like the real service and names the job after its length.
+     */
+    private static ImportJobStatus startedImport(InputStream csv) throws IOException {
+        return ImportJobStatus.builder().id("job-" + csv.readAllBytes().length).state(ImportJobStatus.State.RUNNING).build();
+    }
+
+    private static BatchResponse countBatch(Iterator<PersonRequest> personRequests) {
+        int received = 0;
+        while (personRequests.hasNext()) {
+            personRequests.next();
+            received++;
+        }
+        return BatchResponse.builder().received(received).inserted(received).failures(List.of()).build();
+    }
+}
@@ -0,0 +1,174 @@
+package assecor.assessment.backend.controller;
+
+import assecor.assessment.backend.dto.PersonPage;
+import assecor.assessment.backend.dto.PersonRequest;
+import assecor.assessment.backend.dto.PersonResponse;
+import assecor.assessment.backend.exception.EntityNotFoundException;
+import assecor.assessment.backend.exception.InvalidRequestException;
+import assecor.assessment.backend.model.Color;
+import assecor.assessment.backend.model.Person;
+import assecor.assessment.backend.service.ReactivePersonService;
+import assecor.assessment.backend.util.PersonUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PersonRouterTest {
+
+    @Mock
+    private ReactivePersonService personService;
+
+    private WebTestClient webTestClient;
+    private PersonResponse personResponse;
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = WebTestClient.bindToRouterFunction(new PersonRouter().personRoutes(new PersonHandler(personService))).build();
+        personResponse = PersonUtil.convertToDto(Person.builder()
+                .id(1)
+                .lastname("Hans")
+                .firstname("Müller")
+                .zipcode(12345)
+                .city("berlin")
+                .color(Color.blau)
+                .build());
+    }
+
+    @Test
+    void fetchAllPersonsTest() {
+        when(personService.getAllPersons()).thenReturn(Flux.just(personResponse));
+
+        webTestClient.get().uri("/api/persons").exchange()
+                .expectStatus().isOk()
+                .expectBodyList(PersonResponse.class).isEqualTo(List.of(personResponse));
+    }
+
+    @Test
+    void fetchPersonPageTest() {
+        when(personService.getPersonPage(eq(1), eq("3"), eq(true)))
+                .thenReturn(Mono.just(new PersonPage(List.of(personResponse), "4", 10L)));
+
+        webTestClient.get().uri("/api/persons?limit=1&cursor=3&total=true").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.nextCursor").isEqualTo("4")
+                .jsonPath("$.total").isEqualTo(10);
+    }
+
+    @Test
+    void fetchPersonPageInvalidLimitTest() {
+        webTestClient.get().uri("/api/persons?limit=abc").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Invalid limit: abc");
+    }
+
+    @Test
+    void exportAllPersonsTest() {
+        when(personService.getAllPersons()).thenReturn(Flux.just(personResponse, personResponse));
+
+        webTestClient.get().uri("/api/persons/export").exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(PersonResponse.class).hasSize(2);
+    }
+
+    @Test
+    void fetchPersonByIdNotFoundTest() {
+        when(personService.getPersonByID(2)).thenReturn(Mono.error(new EntityNotFoundException("Person with ID 2 not found!")));
+
+        webTestClient.get().uri("/api/persons/2").exchange()
+                .expectStatus().isNotFound()
+                .expectBody(String.class).isEqualTo("Person with ID 2 not found!");
+    }
+
+    @Test
+    void fetchPersonsByColorInvalidTest() {
+        when(personService.fetchPersonByColor("lila")).thenThrow(new InvalidRequestException("Invalid color value: lila"));
+
+        webTestClient.get().uri("/api/persons/color/lila").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Invalid color value: lila");
+    }
+
+    @Test
+    void fetchPersonsByZipcodeTest() {
+        when(personService.fetchPersonsByZipcode(12000L, 12999L, null)).thenReturn(Flux.just(personResponse));
+
+        webTestClient.get().uri("/api/persons/zip?from=12000&to=12999").exchange()
+                .expectStatus().isOk()
+                .expectBodyList(PersonResponse.class).isEqualTo(List.of(personResponse));
+    }
+
+    @Test
+    void fetchPersonsByZipcodeInvalidNumberTest() {
+        webTestClient.get().uri("/api/persons/zip?from=abc").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Invalid from: abc");
+    }
+
+    @Test
+    void fetchFilteredPersonsTest() {
+        when(personService.filterPersons("blau", "Berlin", null, null, null, null)).thenReturn(Flux.just(personResponse));
+
+        webTestClient.get().uri("/api/persons/filter?color=blau&city=Berlin").exchange()
+                .expectStatus().isOk()
+                .expectBodyList(PersonResponse.class).isEqualTo(List.of(personResponse));
+    }
+
+    @Test
+    void fetchSearchedPersonsTest() {
+        when(personService.searchPersons("mull", 20)).thenReturn(Flux.just(personResponse));
+
+        webTestClient.get().uri("/api/persons/search?q=mull").exchange()
+                .expectStatus().isOk()
+                .expectBodyList(PersonResponse.class).isEqualTo(List.of(personResponse));
+    }
+
+    @Test
+    void fetchPersonCountsByColorTest() {
+        when(personService.countPersonsByColor()).thenReturn(Mono.just(Map.of("blau", 1L)));
+
+        webTestClient.get().uri("/api/persons/color-counts").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.blau").isEqualTo(1);
+    }
+
+    @Test
+    void addNewPersonTest() {
+        when(personService.createPerson(any(PersonRequest.class))).thenReturn(Mono.just("Person with id 1 added successfully!"));
+
+        webTestClient.post().uri("/api/persons")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new PersonRequest("Hans", "Müller", 12345, "berlin", 1))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CREATED)
+                .expectBody(String.class).isEqualTo("Person with id 1 added successfully!");
+    }
+
+    @Test
+    void addNewPersonWithTakenIdConflictTest() {
+        when(personService.createPerson(any(PersonRequest.class))).thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key error")));
+
+        webTestClient.post().uri("/api/persons")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new PersonRequest("Hans", "Müller", 12345, "berlin", 1))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+    }
+}
@@ -1,21 +1,32 @@
 package assecor.assessment.backend.io;
 
+import assecor.assessment.backend.config.BackgroundThreads;
+import assecor.assessment.backend.config.PersonProperties;
 import assecor.assessment.backend.model.Color;
 import assecor.assessment.backend.model.Person;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @ExtendWith(MockitoExtension.class)
 class FileSystemTest {
 
-    @InjectMocks
     private FileSystem fileSystem;
 
     private String filePath;
@@ -23,6 +34,7 @@ class FileSystemTest {
     @BeforeEach
     void setUp() {
         filePath = "static/sample-input.csv";
+        fileSystem = new FileSystem(new PersonProperties());
     }
 
     @Test
@@ -57,6 +69,82 @@ class FileSystemTest {
         assertEquals(1, firstPerson.getId());
     }
 
+    @Test
+    void loadDataFromCsvInParallelTest() {
+        PersonProperties properties = new PersonProperties();
+        properties.getCsv().setLoader(PersonProperties.LoaderMode.PARALLEL);
+        FileSystem parallelFileSystem = new FileSystem(properties);
+
+        assertEquals(fileSystem.loadDataFromCsv(filePath), parallelFileSystem.loadDataFromCsv(filePath));
+        assertEquals(fileSystem.loadDataFromCsv("test-invalid.csv"), parallelFileSystem.loadDataFromCsv("test-invalid.csv"));
+    }
+
+    @Test
+    void loadDataFromCsvRecordsMetricsTest() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        FileSystem meteredFileSystem = new FileSystem(new PersonProperties(), BackgroundThreads.platform(), registry);
+
+        meteredFileSystem.loadDataFromCsv("test-invalid.csv");
+
+        assertEquals(1, registry.get("persons.csv.load").tag("loader", "STREAMING").timer().count());
+        assertEquals(1, registry.get("persons.csv.load.rows").tag("result", "read").counter().count());
+        assertTrue(registry.get("persons.csv.load.rows").tag("result", "skipped").counter().count() > 0);
+    }
+
+    @Test
+    void appendToCsvRecordsMetricsTest() throws IOException {
+        Files.writeString(Path.of("target/test-classes/test-metrics.csv"), "", StandardCharsets.UTF_8);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        FileSystem meteredFileSystem = new FileSystem(new PersonProperties(), BackgroundThreads.platform(), registry);
+        Person person = Person.builder().lastname("a").firstname("b").zipcode(1).city("c").color(Color.blau).build();
+
+        assertTrue(meteredFileSystem.writeDataToCsv("test-metrics.csv", person));
+        assertFalse(meteredFileSystem.writeDataToCsv("does-not-exist.csv", person));
+
+        assertEquals(1, registry.get("persons.csv.append").tag("outcome", "success").timer().count());
+        assertEquals(1, registry.get("persons.csv.append").tag("outcome", "failure").timer().count());
+        assertEquals("b,a,1 c,1\r\n".length(), registry.get("persons.csv.write.bytes").counter().count());
+        assertEquals(1, registry.get("persons.csv.write").timer().count());
+    }
+
+    @Test
+    void streamDataFromCsvTest() {
+        try (Stream<Person> persons = fileSystem.streamDataFromCsv(filePath)) {
+            List<Person> firstTwo = persons.limit(2).toList();
+
+            assertEquals(2, firstTwo.size());
+            assertEquals(1, firstTwo.get(0).getId());
+            assertEquals("Hans", firstTwo.get(0).getLastname());
+            assertEquals(2, firstTwo.get(1).getId());
+            assertEquals("Peter", firstTwo.get(1).getLastname());
+        }
+    }
+
+    @Test
+    void streamDataFromCsvSkipsInvalidLinesTest() {
+        try (Stream<Person> persons = fileSystem.streamDataFromCsv("test-invalid.csv")) {
+            assertEquals(List.of(1), persons.map(Person::getId).toList());
+        }
+    }
+
+    @Test
+    void streamDataFromUploadSkipsUnparsableLinesTest() {
+        String csv = "Müller, Hans, 67742 Lauterecken, 1\n"
+                + "Petersen, Peter, 18439 Stralsund, 9\n"
+                + "Johnson, Johnny, 88888, 3\r\n"
+                + "Millenium, Milly, 7x7 made up, 4\r\n"
+                + "Fujitsu, Tastatur, 42342 Japan, 6";
+        LongAdder skipped = new LongAdder();
+
+        try (Stream<Person> persons = fileSystem.streamDataFromCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), skipped)) {
+            List<Person> parsed = persons.toList();
+
+            assertEquals(List.of("Hans", "Tastatur"), parsed.stream().map(Person::getLastname).toList());
+            assertEquals(List.of(1, 2), parsed.stream().map(Person::getId).toList());
+        }
+        assertEquals(3, skipped.sum());
+    }
+
     @Test
     void testIsValidCsvLine() {
         String[] validLine = {"Hans", "Müller", "12345 SomeCity", "1"};
@@ -83,5 +171,99 @@ class FileSystemTest {
         assertTrue(fileSystem.writeDataToCsv(filePath, person));
     }
 
+    @Test
+    void writeDataToCsvAppendsReadableLineTest() throws IOException {
+        Path file = Path.of("target/test-classes/test-append.csv");
+        Files.writeString(file, "Müller, Hans, 67742 Lauterecken, 1", StandardCharsets.UTF_8);
+        Person person = Person.builder()
+                .lastname("Schmidt")
+                .firstname("Anna")
+                .zipcode(10115)
+                .city("Berlin")
+                .color(Color.rot)
+                .build();
+
+        assertTrue(fileSystem.writeDataToCsv("test-append.csv", person));
+        assertTrue(fileSystem.writeDataToCsv("test-append.csv", person));
+
+        List<Person> persons = fileSystem.loadDataFromCsv("test-append.csv");
+        assertEquals(3, persons.size());
+        Person appended = persons.get(2);
+        assertEquals(3, appended.getId());
+        assertEquals("Schmidt", appended.getLastname());
+        assertEquals("Anna", appended.getFirstname());
+        assertEquals(10115, appended.getZipcode());
+        assertEquals("Berlin", appended.getCity());
+        assertEquals(Color.rot, appended.getColor());
+        assertEquals(Files.size(file), fileSystem.fileLength("test-append.csv"));
+    }
+
+    @Test
+    void appendToCsvWritesConcurrentRowsInEnqueueOrderTest() throws IOException {
+        Path file = Path.of("target/test-classes/test-group-commit.csv");
+        Files.writeString(file, "", StandardCharsets.UTF_8);
+
+        List<CompletableFuture<Long>> written = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Person person = Person.builder()
+                    .lastname("Last" + i)
+                    .firstname("First" + i)
+                    .zipcode(10000 + i)
+                    .city("Berlin")
+                    .color(Color.getColor(i % 7 + 1))
+                    .build();
+            written.add(fileSystem.appendToCsv("test-group-commit.csv", person));
+        }
+        CompletableFuture.allOf(written.toArray(new CompletableFuture[0])).join();
+
+        List<Person> persons = fileSystem.loadDataFromCsv("test-group-commit.csv");
+        assertEquals(500, persons.size());
+        for (int i = 0; i < persons.size(); i++) {
+            assertEquals("Last" + i, persons.get(i).getLastname());
+        }
+        assertEquals(Files.size(file), written.get(written.size() - 1).join());
+    }
+
+    @Test
+    void appendsOfThisApplicationAreRecognizedTest() throws IOException {
+        Path file = Path.of("target/test-classes/test-own-append.csv");
+        Files.writeString(file, "Müller, Hans, 67742 Lauterecken, 1\n", StandardCharsets.UTF_8);
+        FileStamp before = fileSystem.fileStamp("test-own-append.csv");
+        Person person = Person.builder().lastname("Schmidt").firstname("Anna").zipcode(10115).city("Berlin").color(Color.rot).build();
 
-}
\ No newline at end of file
+        assertFalse(fileSystem.isOwnAppend("test-own-append.csv", before));
+        long length = fileSystem.appendToCsv("test-own-append.csv", person).join();
+        FileStamp appended = fileSystem.fileStamp("test-own-append.csv");
+
+        assertEquals(length, appended.length());
+        assertTrue(fileSystem.isOwnAppend("test-own-append.csv", appended));
+        assertFalse(fileSystem.isOwnAppend("test-own-append.csv", before));
+
+        String content = Files.readString(file, StandardCharsets.UTF_8);
+        Files.writeString(file, content.replace("Anna", "Anne"), StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(appended.lastModifiedNanos() / 1_000_000 + 2_000));
+        FileStamp edited = fileSystem.fileStamp("test-own-append.csv");
+
+        assertEquals(appended.length(), edited.length());
+        assertFalse(fileSystem.isOwnAppend("test-own-append.csv", edited));
+    }
+
+    @Test
+    void appendToCsvFailsAfterTheWriterStoppedTest() {
+        Person person = Person.builder().lastname("a").firstname("b").zipcode(1).city("c").color(Color.blau).build();
+
+        fileSystem.stopWriter();
+
+        CompletableFuture<Long> written = fileSystem.appendToCsv(filePath, person);
+        assertTrue(written.isCompletedExceptionally());
+        assertFalse(fileSystem.writeDataToCsv(filePath, person));
+    }
+
+    @Test
+    void appendToCsvFailsForMissingFileTest() {
+        Person person = Person.builder().lastname("a").firstname("b").zipcode(1).city("c").color(Color.blau).build();
+
+        assertTrue(fileSystem.appendToCsv("does-not-exist.csv", person).isCompletedExceptionally());
+        assertFalse(fileSystem.writeDataToCsv("does-not-exist.csv", person));
+    }
+}
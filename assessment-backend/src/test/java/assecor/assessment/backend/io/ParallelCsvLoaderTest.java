@@ -0,0 +1,59 @@
+package assecor.assessment.backend.io;
+
+import assecor.assessment.backend.config.PersonProperties;
+import assecor.assessment.backend.model.Person;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelCsvLoaderTest {
+
+    private FileSystem fileSystem;
+
+    @BeforeEach
+    void setUp() {
+        fileSystem = new FileSystem(new PersonProperties());
+    }
+
+    @Test
+    void loadMatchesStreamingReaderTest() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            switch (i % 5) {
+                case 0 -> content.append("Müller, Hans, 67742 Lauterecken, 1\r\n");
+                case 1 -> content.append("Petersen, Peter, 18439 Stralsund, 2\n");
+                case 2 -> content.append("Schmidt, ,54321 ,2\n");
+                case 3 -> content.append("\n");
+                default -> content.append("Bart, Bertram, 12313 Wasweißich, ").append(i % 7 + 1).append('\n');
+            }
+        }
+        content.append("Andersson, Anders, 32132 Schweden - ☀, 2");
+        Path file = Path.of("target/test-classes/test-parallel.csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+
+        ParallelCsvLoader loader = new ParallelCsvLoader(ForkJoinPool.commonPool(), 100);
+        List<Person> parallel = loader.load(file);
+        List<Person> streamed = fileSystem.loadDataFromCsv("test-parallel.csv");
+
+        assertEquals(301, parallel.size());
+        assertEquals(streamed, parallel);
+        assertEquals("Schweden - ☀", parallel.get(300).getCity());
+    }
+
+    @Test
+    void loadEmptyFileTest() throws IOException {
+        Path file = Path.of("target/test-classes/test-empty.csv");
+        Files.writeString(file, "");
+
+        ParallelCsvLoader loader = new ParallelCsvLoader(ForkJoinPool.commonPool(), 100);
+        assertTrue(loader.load(file).isEmpty());
+    }
+}
@@ -0,0 +1,82 @@
+package assecor.assessment.backend.io;
+
+import assecor.assessment.backend.exception.ColorNotFoundException;
+import assecor.assessment.backend.model.Color;
+import assecor.assessment.backend.model.Person;
+import com.opencsv.CSVParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersonLineParserTest {
+
+    private final PersonLineParser parser = new PersonLineParser();
+
+    @Test
+    void parseMatchesOpenCsvTest() throws IOException {
+        String[] lines = {
+                "Müller, Hans, 67742 Lauterecken, 1",
+                "Petersen, Peter, 18439 Stralsund, 2",
+                "Johnson, Johnny, 88888 made up, 3",
+                "Müller, Hans,67742 Lauterecken,3",
+                "Schmidt, ,54321 ,2",
+                "Bart, Bertram, 12313 Wasweißich, 1, extra",
+                "Andersson, Anders, 32132 Schweden - ☀, 2",
+                "  a , b ,\t123\t  city  , 07 ",
+                "\"Quoted, Name\", Anna, 12345 Berlin, 4",
+                "a,b,12345,1",
+                "a,b,c",
+                "",
+                ",,,",
+                "a,b, 1 2 ,5",
+                "a,b,+12 x,+3",
+        };
+        CSVParser csvParser = new CSVParser();
+        for (String text : lines) {
+            String[] fields = csvParser.parseLine(text);
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+            Person parsed = parser.parse(ByteBuffer.wrap(bytes), 0, bytes.length, 7);
+            ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length + 2).put(1, bytes);
+            assertEquals(parsed, parser.parse(direct, 1, bytes.length + 1, 7), text);
+
+            if (PersonLineParser.isInvalidLine(fields)) {
+                assertNull(parsed, text);
+            } else {
+                assertEquals(PersonLineParser.createPerson(7, fields), parsed, text);
+            }
+        }
+    }
+
+    @Test
+    void parseThrowsLikeOpenCsvPathTest() {
+        byte[] unknownColor = "a, b, 12345 Berlin, 9".getBytes(StandardCharsets.UTF_8);
+        byte[] invalidZip = "a, b, 12x45 Berlin, 1".getBytes(StandardCharsets.UTF_8);
+        byte[] invalidColor = "a, b, 12345 Berlin, blau".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(ColorNotFoundException.class, () -> parser.parse(ByteBuffer.wrap(unknownColor), 0, unknownColor.length, 1));
+        assertThrows(NumberFormatException.class, () -> parser.parse(ByteBuffer.wrap(invalidZip), 0, invalidZip.length, 1));
+        assertThrows(NumberFormatException.class, () -> parser.parse(ByteBuffer.wrap(invalidColor), 0, invalidColor.length, 1));
+    }
+
+    @Test
+    void readerSplitsLinesLikeReadLineTest() throws IOException {
+        String content = "Müller, Hans, 67742 Lauterecken, 1\r\n\rPetersen, Peter, 18439 Stralsund, 2\rinvalid\nJohnson, Johnny, 88888 made up, 3";
+        List<Person> persons = new ArrayList<>();
+        try (PersonCsvReader reader = new PersonCsvReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)))) {
+            reader.forEachRemaining(persons::add);
+        }
+
+        assertEquals(3, persons.size());
+        assertEquals(List.of(1, 2, 3), persons.stream().map(Person::getId).toList());
+        assertEquals("Peter", persons.get(1).getLastname());
+        assertEquals(Color.violet, persons.get(2).getColor());
+    }
+}
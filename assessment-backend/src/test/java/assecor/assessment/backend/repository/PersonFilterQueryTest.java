@@ -0,0 +1,43 @@
+package assecor.assessment.backend.repository;
+
+import assecor.assessment.backend.model.Color;
+import assecor.assessment.backend.util.PersonFilter;
+import assecor.assessment.backend.util.ZipcodeRange;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PersonFilterQueryTest {
+
+    @Test
+    void pushesAllCriteriaIntoOneQueryTest() {
+        Query query = PersonFilterQuery.of(new PersonFilter(Color.blau, "Berlin", new ZipcodeRange(18000, 18999), "M.ü"));
+
+        Document criteria = query.getQueryObject();
+        assertEquals(Color.blau, criteria.get("color"));
+        assertEquals("Berlin", criteria.get("city"));
+        assertEquals(new Document("$gte", 18000L).append("$lte", 18999L), criteria.get("zipcode"));
+        assertEquals("^M\\.ü", criteria.get("lastname", Pattern.class).pattern());
+        assertEquals(new Document("_id", 1), query.getSortObject());
+        assertNull(query.getHint());
+        assertEquals(5, query.getFieldsObject().size());
+    }
+
+    @Test
+    void escapeRegexMatchesThePrefixLiterallyTest() {
+        String prefix = "a.b*c+(d)[e]{f}|g?h^i$j\\k";
+        Pattern pattern = Pattern.compile("^" + PersonFilterQuery.escapeRegex(prefix));
+
+        assertEquals("M\\.ü", PersonFilterQuery.escapeRegex("M.ü"));
+        assertEquals("Müller", PersonFilterQuery.escapeRegex("Müller"));
+        assertTrue(pattern.matcher(prefix + "son").find());
+        assertFalse(pattern.matcher("aXb" + prefix.substring(3)).find());
+    }
+}
@@ -0,0 +1,101 @@
+package assecor.assessment.backend.repository;
+
+import assecor.assessment.backend.config.PersonProperties;
+import assecor.assessment.backend.model.Person;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PersonIdAllocatorTest {
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private PersonIdAllocator idAllocator;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        PersonProperties properties = new PersonProperties();
+        properties.getMongo().setIdBlockSize(10);
+        idAllocator = new PersonIdAllocator(mongoTemplate, properties);
+
+        when(mongoTemplate.findOne(any(Query.class), eq(Person.class))).thenReturn(Person.builder().id(5).build());
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(PersonIdAllocator.COUNTERS_COLLECTION))).thenAnswer(invocation -> {
+            Update update = invocation.getArgument(1);
+            long max = ((Number) update.getUpdateObject().get("$max", Document.class).get(PersonIdAllocator.SEQUENCE_FIELD)).longValue();
+            sequence.accumulateAndGet(max, Math::max);
+            return null;
+        });
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Document.class), eq(PersonIdAllocator.COUNTERS_COLLECTION))).thenAnswer(invocation -> {
+            Update update = invocation.getArgument(1);
+            int increment = ((Number) update.getUpdateObject().get("$inc", Document.class).get(PersonIdAllocator.SEQUENCE_FIELD)).intValue();
+            return new Document(PersonIdAllocator.SEQUENCE_FIELD, sequence.addAndGet(increment));
+        });
+    }
+
+    @Test
+    void nextIdReservesOneBlockPerBlockSizeIdsTest() {
+        for (int expected = 6; expected <= 25; expected++) {
+            assertEquals(expected, idAllocator.nextId());
+        }
+
+        verify(mongoTemplate, times(2)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Document.class), eq(PersonIdAllocator.COUNTERS_COLLECTION));
+        verify(mongoTemplate, times(1)).findOne(any(Query.class), eq(Person.class));
+    }
+
+    @Test
+    void reserveReturnsConsecutiveRangeAfterBlockTest() {
+        assertEquals(6, idAllocator.nextId());
+        assertEquals(16, idAllocator.reserve(50));
+        assertEquals(7, idAllocator.nextId());
+        assertEquals(65, sequence.get());
+    }
+
+    @Test
+    void concurrentCallersGetDistinctIdsTest() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Integer>>> futures = executor.invokeAll(List.of(this::takeIds, this::takeIds, this::takeIds, this::takeIds));
+            Set<Integer> ids = new HashSet<>();
+            for (Future<List<Integer>> future : futures) {
+                ids.addAll(future.get());
+            }
+            assertEquals(400, ids.size());
+            assertTrue(ids.stream().allMatch(id -> id > 5));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private List<Integer> takeIds() {
+        Integer[] ids = new Integer[100];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = idAllocator.nextId();
+        }
+        return List.of(ids);
+    }
+}
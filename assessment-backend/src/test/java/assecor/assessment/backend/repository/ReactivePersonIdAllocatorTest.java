@@ -0,0 +1,80 @@
+package assecor.assessment.backend.repository;
+
+import assecor.assessment.backend.config.PersonProperties;
+import assecor.assessment.backend.model.Person;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactivePersonIdAllocatorTest {
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    private ReactivePersonIdAllocator idAllocator;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        PersonProperties properties = new PersonProperties();
+        properties.getMongo().setIdBlockSize(10);
+        idAllocator = new ReactivePersonIdAllocator(mongoTemplate, properties);
+
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(PersonIdAllocator.COUNTERS_COLLECTION))).thenAnswer(invocation -> Mono.fromCallable(() -> {
+            Update update = invocation.getArgument(1);
+            long max = ((Number) update.getUpdateObject().get("$max", Document.class).get(PersonIdAllocator.SEQUENCE_FIELD)).longValue();
+            sequence.accumulateAndGet(max, Math::max);
+            return mock(UpdateResult.class);
+        }));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Document.class), eq(PersonIdAllocator.COUNTERS_COLLECTION))).thenAnswer(invocation -> Mono.fromCallable(() -> {
+            Update update = invocation.getArgument(1);
+            int increment = ((Number) update.getUpdateObject().get("$inc", Document.class).get(PersonIdAllocator.SEQUENCE_FIELD)).intValue();
+            return new Document(PersonIdAllocator.SEQUENCE_FIELD, sequence.addAndGet(increment));
+        }));
+    }
+
+    @Test
+    void nextIdReservesOneBlockPerBlockSizeIdsTest() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Person.class))).thenReturn(Mono.just(Person.builder().id(5).build()));
+
+        StepVerifier.create(Flux.range(0, 20).concatMap(i -> idAllocator.nextId()).collectList())
+                .expectNext(Flux.range(6, 20).collectList().block())
+                .verifyComplete();
+
+        verify(mongoTemplate, times(2)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Document.class), eq(PersonIdAllocator.COUNTERS_COLLECTION));
+        verify(mongoTemplate, times(1)).findOne(any(Query.class), eq(Person.class));
+    }
+
+    @Test
+    void seedingIsRepeatedAfterAFailureTest() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Person.class)))
+                .thenReturn(Mono.error(new IllegalStateException("unreachable")))
+                .thenReturn(Mono.just(Person.builder().id(5).build()));
+
+        StepVerifier.create(idAllocator.nextId()).expectError(IllegalStateException.class).verify();
+        StepVerifier.create(idAllocator.nextId()).expectNext(6).verifyComplete();
+        assertEquals(List.of(7, 8), Flux.range(0, 2).concatMap(i -> idAllocator.nextId()).collectList().block());
+    }
+}
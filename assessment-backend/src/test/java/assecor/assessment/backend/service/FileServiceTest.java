@@ -1,25 +1,45 @@
 package assecor.assessment.backend.service;
 
+import assecor.assessment.backend.cache.JsonResponse;
+import assecor.assessment.backend.cache.JsonResponseCache;
+import assecor.assessment.backend.config.PersonProperties;
+import assecor.assessment.backend.dto.CacheStatsResponse;
+import assecor.assessment.backend.dto.PersonPage;
 import assecor.assessment.backend.dto.PersonRequest;
 import assecor.assessment.backend.dto.PersonResponse;
 import assecor.assessment.backend.exception.EntityNotFoundException;
+import assecor.assessment.backend.exception.InvalidParamException;
+import assecor.assessment.backend.io.FileStamp;
 import assecor.assessment.backend.io.FileSystem;
 import assecor.assessment.backend.model.Color;
 import assecor.assessment.backend.model.Person;
 import assecor.assessment.backend.util.PersonUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,6 +48,12 @@ class FileServiceTest {
     @Mock
     FileSystem fileSystem;
 
+    @Spy
+    PersonProperties properties = new PersonProperties();
+
+    @Spy
+    JsonResponseCache responseCache = new JsonResponseCache(new ObjectMapper());
+
     @InjectMocks
     FileService fileService;
 
@@ -62,6 +88,64 @@ class FileServiceTest {
         assertEquals(0, persons.size());
     }
 
+    @Test
+    void getAllPersonJsonIsReusedUntilTheSnapshotChangesTest() {
+        when(fileSystem.loadDataFromCsv(anyString())).thenReturn(List.of(person));
+        when(fileSystem.appendToCsv(anyString(), any(Person.class))).thenReturn(CompletableFuture.completedFuture(100L));
+
+        JsonResponse first = fileService.getAllPersonJson();
+        assertSame(first, fileService.getAllPersonJson());
+        assertSame(first.json(), fileService.getAllPersonJson().json());
+
+        fileService.addPerson(PersonRequest.builder().lastname("Schmidt").firstname("Anna").zipcode(10115).city("Berlin").colorID(4).build());
+
+        JsonResponse second = fileService.getAllPersonJson();
+        assertNotEquals(first.getEtag(), second.getEtag());
+        assertTrue(new String(second.json(), StandardCharsets.UTF_8).contains("\"lastname\":\"Schmidt\""));
+    }
+
+    @Test
+    void getPersonsByColorJsonTest() {
+        when(fileSystem.loadDataFromCsv(anyString())).thenReturn(List.of(person));
+
+        JsonResponse blue = fileService.getPersonsByColorJson("blau");
+
+        assertTrue(new String(blue.json(), StandardCharsets.UTF_8).contains("\"lastname\":\"doe\""));
+        assertThrows(EntityNotFoundException.class, () -> fileService.getPersonsByColorJson("rot"));
+    }
+
+    @Test
+    void getPersonsByZipcodeTest() {
+        Person other = Person.builder().id(2).lastname("roe").firstname("jane").zipcode(67742).city("Lauterecken").color(Color.rot).build();
+        when(fileSystem.loadDataFromCsv(anyString())).thenReturn(List.of(person, other));
+
+        assertEquals(List.of(PersonUtil.convertToDto(other)), fileService.getPersonsByZipcode(67000L, 67999L, null));
+        assertEquals(List.of(PersonUtil.convertToDto(person)), fileService.getPersonsByZipcode(null, null, "12"));
+        assertTrue(fileService.getPersonsByZipcode(null, null, "9").isEmpty());
+    }
+
+    @Test
+    void filterPersonsTest() {
+        Person other = Person.builder().id(2).lastname("roe").firstname("jane").zipcode(67742).city("Lauterecken").color(Color.rot).build();
+        when(fileSystem.loadDataFromCsv(anyString())).thenReturn(List.of(person, other));
+
+        assertEquals(List.of(PersonUtil.convertToDto(other)), fileService.filterPersons("rot", "Lauterecken", null, null, "67", "r"));
+        assertEquals(List.of(PersonUtil.convertToDto(person)), fileService.filterPersons(null, "berlin", null, null, null, null));
+        assertTrue(fileService.filterPersons("rot", "berlin", null, null, null, null).isEmpty());
+        assertThrows(InvalidParamException.class, () -> fileService.filterPersons(null, null, null, null, null, null));
+    }
+
+    @Test
+    void searchPersonsTest() {
+        Person other = Person.builder().id(2).lastname("Döring").firstname("jane").zipcode(67742).city("Lauterecken").color(Color.rot).build();
+        when(fileSystem.loadDataFromCsv(anyString())).thenReturn(List.of(person, other));
+
+        assertEquals(List.of(PersonUtil.convertToDto(other)), fileService.searchPersons("dorin", 10));
+        assertEquals(List.of(PersonUtil.convertToDto(person)), fileService.searchPersons("John Doe", 10));
+        assertThrows(InvalidParamException.class, () -> fileService.searchPersons(null, 10));
+        assertThrows(InvalidParamException.class, () -> fileService.searchPersons("doe", PersonUtil.MAX_PAGE_SIZE + 1));
+    }
+
     @Test
     void getPersonByIdSuccessTest() {
         when(fileSystem.loadDataFromCsv(anyString())).thenReturn(List.of(person));
@@ -97,7 +181,7 @@ class FileServiceTest {
     @Test
     void addPersonSuccessTest() {
         PersonRequest request = new PersonRequest("doe", "john", 12345, "Berlin", 1);
-        when(fileSystem.writeDataToCsv(anyString(), any())).thenReturn(true);
+        when(fileSystem.appendToCsv(anyString(), any())).thenReturn(CompletableFuture.completedFuture(100L));
 
         String response = fileService.addPerson(request);
         assertEquals("Person added successfully", response);
@@ -106,10 +190,207 @@ class FileServiceTest {
     @Test
     void addPersonFailTest() {
         PersonRequest request = new PersonRequest("doe", "john", 12345, "Berlin", 1);
-        when(fileSystem.writeDataToCsv(anyString(), any())).thenReturn(false);
+        when(fileSystem.appendToCsv(anyString(), any())).thenReturn(CompletableFuture.failedFuture(new IOException("disk full")));
 
         String response = fileService.addPerson(request);
         assertEquals("Could not add person", response);
     }
 
-}
\ No newline at end of file
+    @Test
+    void readsAreServedFromSnapshotTest() {
+        when(fileSystem.loadDataFromCsv(anyString())).thenReturn(List.of(person));
+
+        fileService.getAllPerson();
+        fileService.getPersonById(1);
+        fileService.getPersonsByColor("blau");
+
+        verify(fileSystem, times(1)).loadDataFromCsv(anyString());
+        CacheStatsResponse stats = fileService.getCacheStats();
+        assertEquals(1, stats.getVersion());
+        assertEquals(1, stats.getSize());
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getReloads());
+    }
+
+    @Test
+    void addPersonAppendsToSnapshotTest() {
+        PersonRequest request = new PersonRequest("doe", "jane", 54321, "Hamburg", 2);
+        when(fileSystem.loadDataFromCsv(anyString())).thenReturn(List.of(person));
+        when(fileSystem.appendToCsv(anyString(), any())).thenReturn(CompletableFuture.completedFuture(100L));
+
+        fileService.getAllPerson();
+        fileService.addPerson(request);
+
+        PersonResponse added = fileService.getPersonById(2);
+        assertEquals("jane", added.getFirstname());
+        assertEquals("gruen", added.getColor());
+        assertEquals(2, fileService.getAllPerson().size());
+        verify(fileSystem, times(1)).loadDataFromCsv(anyString());
+        assertEquals(2, fileService.getCacheStats().getVersion());
+    }
+
+    @Test
+    void addedPersonIsPublishedOnceWrittenTest() {
+        PersonRequest request = new PersonRequest("doe", "jane", 54321, "Hamburg", 2);
+        CompletableFuture<Long> written = new CompletableFuture<>();
+        when(fileSystem.loadDataFromCsv(anyString())).thenReturn(List.of(person));
+        when(fileSystem.appendToCsv(anyString(), any())).thenReturn(written);
+
+        fileService.getAllPerson();
+        CompletableFuture<String> adding = CompletableFuture.supplyAsync(() -> fileService.addPerson(request));
+        verify(fileSystem, timeout(1_000)).appendToCsv(anyString(), any());
+
+        assertEquals(1, fileService.getAllPerson().size());
+        assertThrows(EntityNotFoundException.class, () -> fileService.getPersonById(2));
+        written.complete(130L);
+        assertEquals("Person added successfully", adding.join());
+        assertEquals("jane", fileService.getPersonById(2).getFirstname());
+    }
+
+    @Test
+    void getPersonByIdOutOfRangeTest() {
+        when(fileSystem.loadDataFromCsv(anyString())).thenReturn(List.of(person));
+
+        assertThrows(EntityNotFoundException.class, () -> fileService.getPersonById(0));
+        assertThrows(EntityNotFoundException.class, () -> fileService.getPersonById(2));
+    }
+
+    @Test
+    void countPersonsByColorTest() {
+        when(fileSystem.loadDataFromCsv(anyString())).thenReturn(List.of(person));
+
+        Map<String, Long> counts = fileService.countPersonsByColor();
+        assertEquals(Color.values().length, counts.size());
+        assertEquals(1L, counts.get("blau"));
+        assertEquals(0L, counts.get("rot"));
+    }
+
+    @Test
+    void addPersonUpdatesColorBucketTest() {
+        PersonRequest request = new PersonRequest("doe", "jane", 54321, "Hamburg", 4);
+        when(fileSystem.loadDataFromCsv(anyString())).thenReturn(List.of(person));
+        when(fileSystem.appendToCsv(anyString(), any())).thenReturn(CompletableFuture.completedFuture(100L));
+
+        assertThrows(EntityNotFoundException.class, () -> fileService.getPersonsByColor("rot"));
+        fileService.addPerson(request);
+
+        List<PersonResponse> persons = fileService.getPersonsByColor("rot");
+        assertEquals(1, persons.size());
+        assertEquals(2, persons.get(0).getId());
+        assertEquals(1L, fileService.countPersonsByColor().get("rot"));
+    }
+
+    @Test
+    void streamAllPersonTest() {
+        when(fileSystem.loadDataFromCsv(anyString())).thenReturn(List.of(person));
+
+        List<PersonResponse> persons = fileService.streamAllPerson().toList();
+        assertEquals(List.of(PersonUtil.convertToDto(person)), persons);
+    }
+
+    @Test
+    void getPersonPageTest() {
+        Person second = Person.builder().id(2).lastname("roe").firstname("jane").zipcode(54321).city("hamburg").color(Color.rot).build();
+        Person third = Person.builder().id(3).lastname("poe").firstname("jim").zipcode(11111).city("bonn").color(Color.gelb).build();
+        when(fileSystem.loadDataFromCsv(anyString())).thenReturn(List.of(person, second, third));
+
+        PersonPage firstPage = fileService.getPersonPage(2, null, true);
+        assertEquals(List.of(PersonUtil.convertToDto(person), PersonUtil.convertToDto(second)), firstPage.getPersons());
+        assertEquals("2", firstPage.getNextCursor());
+        assertEquals(3L, firstPage.getTotal());
+
+        PersonPage lastPage = fileService.getPersonPage(2, firstPage.getNextCursor(), false);
+        assertEquals(List.of(PersonUtil.convertToDto(third)), lastPage.getPersons());
+        assertNull(lastPage.getNextCursor());
+        assertNull(lastPage.getTotal());
+    }
+
+    @Test
+    void getPersonPageInvalidParamsTest() {
+        assertThrows(InvalidParamException.class, () -> fileService.getPersonPage(0, null, false));
+        assertThrows(InvalidParamException.class, () -> fileService.getPersonPage(PersonUtil.MAX_PAGE_SIZE + 1, null, false));
+        assertThrows(InvalidParamException.class, () -> fileService.getPersonPage(10, "abc", false));
+    }
+
+    @Test
+    void failedAppendDropsSnapshotTest() {
+        PersonRequest request = new PersonRequest("doe", "jane", 54321, "Hamburg", 2);
+        when(fileSystem.loadDataFromCsv(anyString())).thenReturn(List.of(person));
+        when(fileSystem.appendToCsv(anyString(), any())).thenReturn(CompletableFuture.failedFuture(new IOException("disk full")));
+
+        fileService.getAllPerson();
+        assertEquals("Could not add person", fileService.addPerson(request));
+
+        assertEquals(1, fileService.getAllPerson().size());
+        verify(fileSystem, times(2)).loadDataFromCsv(anyString());
+    }
+
+    @Test
+    void ownAppendsDoNotInvalidateTheSnapshotTest() {
+        ArgumentCaptor<Runnable> onChange = ArgumentCaptor.forClass(Runnable.class);
+        FileStamp loaded = new FileStamp(100, 1_000);
+        FileStamp appended = new FileStamp(130, 2_000);
+        when(fileSystem.watchFile(anyString(), onChange.capture())).thenReturn(null);
+        when(fileSystem.loadDataFromCsv(anyString())).thenReturn(List.of(person));
+        when(fileSystem.fileStamp(anyString())).thenReturn(loaded, appended, appended);
+        when(fileSystem.appendToCsv(anyString(), any())).thenReturn(CompletableFuture.completedFuture(130L));
+        when(fileSystem.isOwnAppend(anyString(), eq(appended))).thenReturn(true, false);
+        fileService.startWatching();
+
+        fileService.getAllPerson();
+        fileService.addPerson(new PersonRequest("doe", "jane", 54321, "Hamburg", 2));
+        onChange.getValue().run();
+
+        assertFalse(fileService.getCacheStats().isStale());
+        assertEquals(1, fileService.getCacheStats().getReloads());
+
+        onChange.getValue().run();
+
+        assertTrue(fileService.getCacheStats().isStale());
+    }
+
+    @Test
+    void editKeepingTheFileLengthInvalidatesTheSnapshotTest() {
+        ArgumentCaptor<Runnable> onChange = ArgumentCaptor.forClass(Runnable.class);
+        when(fileSystem.watchFile(anyString(), onChange.capture())).thenReturn(null);
+        when(fileSystem.loadDataFromCsv(anyString())).thenReturn(List.of(person));
+        when(fileSystem.fileStamp(anyString())).thenReturn(new FileStamp(100, 1_000), new FileStamp(100, 1_000), new FileStamp(100, 2_000));
+        fileService.startWatching();
+
+        fileService.getAllPerson();
+        onChange.getValue().run();
+        assertFalse(fileService.getCacheStats().isStale());
+
+        onChange.getValue().run();
+        assertTrue(fileService.getCacheStats().isStale());
+    }
+
+    @Test
+    void readsServeStaleSnapshotWhileReloadingTest() throws Exception {
+        Person second = Person.builder().id(2).lastname("roe").firstname("jane").zipcode(54321).city("hamburg").color(Color.rot).build();
+        CountDownLatch reloadStarted = new CountDownLatch(1);
+        CountDownLatch releaseReload = new CountDownLatch(1);
+        when(fileSystem.loadDataFromCsv(anyString())).thenReturn(List.of(person)).thenAnswer(invocation -> {
+            reloadStarted.countDown();
+            releaseReload.await();
+            return List.of(person, second);
+        });
+
+        fileService.getAllPerson();
+        fileService.invalidate();
+        assertTrue(fileService.getCacheStats().isStale());
+
+        CompletableFuture<List<PersonResponse>> reloading = CompletableFuture.supplyAsync(fileService::getAllPerson);
+        assertTrue(reloadStarted.await(5, TimeUnit.SECONDS));
+
+        assertEquals(1, fileService.getAllPerson().size());
+        assertEquals(1, fileService.getCacheStats().getStaleReads());
+
+        releaseReload.countDown();
+        assertEquals(2, reloading.get(5, TimeUnit.SECONDS).size());
+        assertEquals(2, fileService.getAllPerson().size());
+        assertFalse(fileService.getCacheStats().isStale());
+        assertEquals(2, fileService.getCacheStats().getVersion());
+    }
+}
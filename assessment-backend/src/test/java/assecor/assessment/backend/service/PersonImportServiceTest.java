@@ -0,0 +1,170 @@
+package assecor.assessment.backend.service;
+
+import assecor.assessment.backend.config.BackgroundThreads;
+import assecor.assessment.backend.config.PersonProperties;
+import assecor.assessment.backend.dto.BatchFailure;
+import assecor.assessment.backend.dto.ImportJobStatus;
+import assecor.assessment.backend.exception.EntityNotFoundException;
+import assecor.assessment.backend.exception.UploadTooLargeException;
+import assecor.assessment.backend.io.FileSystem;
+import assecor.assessment.backend.model.Person;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PersonImportServiceTest {
+
+    @Mock
+    private PersonService personService;
+
+    private PersonProperties properties;
+
+    private PersonImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new PersonProperties();
+        properties.getMongo().setBatchSize(2);
+        properties.getMongo().setImportWriters(2);
+        properties.getMongo().setImportQueueCapacity(1);
+        importService = new PersonImportService(personService, new FileSystem(properties), properties, BackgroundThreads.platform());
+    }
+
+    @Test
+    void importInsertsAllValidLinesInBatchesTest() throws Exception {
+        List<String> imported = Collections.synchronizedList(new ArrayList<>());
+        when(personService.insertBatch(anyList(), any(), anyList())).thenAnswer(invocation -> {
+            List<Person> batch = invocation.getArgument(0);
+            int[] indexes = invocation.getArgument(1);
+            List<BatchFailure> failures = invocation.getArgument(2);
+            for (int i = 0; i < batch.size(); i++) {
+                if (batch.get(i).getLastname().equals("Duplicate")) {
+                    failures.add(new BatchFailure(indexes[i], "duplicate key"));
+                } else {
+                    imported.add(batch.get(i).getLastname());
+                }
+            }
+            return batch.size() - failures.size();
+        });
+        String csv = "Müller, Hans, 67742 Lauterecken, 1\n"
+                + "Petersen, Peter, 18439 Stralsund, 2\n"
+                + "Johnson, Johnny, 88888, 3\n"
+                + "Millenium, Milly, 77777 made up, 4\n"
+                + "Müller, Jonas, 32323 Hansstadt, 9\n"
+                + "Fujitsu, Tastatur, 42342 Japan, 6\n"
+                + "Nummer, Duplicate, 12313 Wasweißich, 1\n";
+
+        ImportJobStatus started = importService.startImport(stream(csv), -1);
+        ImportJobStatus status = awaitFinished(started.getId());
+
+        assertEquals(ImportJobStatus.State.COMPLETED, status.getState());
+        assertEquals(5, status.getParsed());
+        assertEquals(2, status.getSkipped());
+        assertEquals(4, status.getInserted());
+        assertEquals(1, status.getFailed());
+        assertEquals(List.of(new BatchFailure(7, "duplicate key")), status.getFailures());
+        assertNull(status.getError());
+        assertNotNull(status.getFinishedAt());
+        assertEquals(List.of("Hans", "Milly", "Peter", "Tastatur"), imported.stream().sorted().toList());
+    }
+
+    @Test
+    void importReturnsBeforeTheBatchesAreWrittenTest() throws Exception {
+        CountDownLatch mongoAvailable = new CountDownLatch(1);
+        when(personService.insertBatch(anyList(), any(), anyList())).thenAnswer(invocation -> {
+            mongoAvailable.await();
+            return invocation.<List<Person>>getArgument(0).size();
+        });
+        String csv = "Müller, Hans, 67742 Lauterecken, 1\n".repeat(20);
+
+        ImportJobStatus started = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> importService.startImport(stream(csv), -1));
+        assertEquals(ImportJobStatus.State.RUNNING, started.getState());
+        mongoAvailable.countDown();
+        ImportJobStatus status = awaitFinished(started.getId());
+
+        assertEquals(ImportJobStatus.State.COMPLETED, status.getState());
+        assertEquals(20, status.getInserted());
+    }
+
+    @Test
+    void importMultipartUploadTest() throws Exception {
+        when(personService.insertBatch(anyList(), any(), anyList())).thenAnswer(invocation -> invocation.<List<Person>>getArgument(0).size());
+        MockMultipartFile file = new MockMultipartFile("file", "persons.csv", "text/csv",
+                "Müller, Hans, 67742 Lauterecken, 1\nPetersen, Peter, 18439 Stralsund, 2\n".getBytes(StandardCharsets.UTF_8));
+
+        ImportJobStatus status = awaitFinished(importService.startImport(file).getId());
+
+        assertEquals(ImportJobStatus.State.COMPLETED, status.getState());
+        assertEquals(2, status.getInserted());
+    }
+
+    @Test
+    void importFailsWhenAWriteFailsTest() throws Exception {
+        when(personService.insertBatch(anyList(), any(), anyList())).thenThrow(new IllegalStateException("MongoDB is down"));
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            csv.append("Müller, Hans, 67742 Lauterecken, 1\n");
+        }
+
+        ImportJobStatus status = awaitFinished(importService.startImport(stream(csv.toString()), -1).getId());
+
+        assertEquals(ImportJobStatus.State.FAILED, status.getState());
+        assertEquals("MongoDB is down", status.getError());
+        assertEquals(0, status.getInserted());
+        assertTrue(status.getParsed() < 100, "parsing stops once the job failed");
+    }
+
+    @Test
+    void importAboveTheSizeLimitIsRejectedTest() {
+        properties.getMongo().setImportMaxSize(DataSize.ofBytes(10));
+
+        assertThrows(UploadTooLargeException.class, () -> importService.startImport(stream("Müller, Hans, 67742 Lauterecken, 1\n"), 36));
+    }
+
+    @Test
+    void importIsRejectedWhenTheUploadExceedsTheSizeLimitTest() {
+        properties.getMongo().setImportMaxSize(DataSize.ofBytes(10));
+
+        UploadTooLargeException e = assertThrows(UploadTooLargeException.class,
+                () -> importService.startImport(stream("Müller, Hans, 67742 Lauterecken, 1\n"), -1));
+        assertEquals("Upload exceeds the limit of 10 bytes", e.getMessage());
+    }
+
+    @Test
+    void getImportStatusOfUnknownJobTest() {
+        assertThrows(EntityNotFoundException.class, () -> importService.getImportStatus("unknown"));
+    }
+
+    private ImportJobStatus awaitFinished(String id) throws InterruptedException {
+        for (int attempt = 0; attempt < 500; attempt++) {
+            ImportJobStatus status = importService.getImportStatus(id);
+            if (status.getState() != ImportJobStatus.State.RUNNING) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        return fail("import did not finish");
+    }
+
+    private static ByteArrayInputStream stream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,68 @@
+package assecor.assessment.backend.service;
+
+import assecor.assessment.backend.model.Color;
+import assecor.assessment.backend.model.Person;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PersonSearchIndexTest {
+
+    private final PersonSearchIndex searchIndex = new PersonSearchIndex(Runnable::run);
+
+    @Test
+    void loadReadsAndClosesTheCursorTest() {
+        AtomicBoolean closed = new AtomicBoolean();
+
+        searchIndex.load(() -> Stream.of(person(1, "Müller"), person(2, "Schmidt")).onClose(() -> closed.set(true)));
+
+        assertEquals(2, searchIndex.size());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void reloadKeepsPersonsAddedWhileItRunsTest() {
+        searchIndex.load(() -> Stream.of(person(1, "Müller"), person(2, "Schmidt")));
+
+        searchIndex.reload(() -> Stream.of(person(1, "Müller"), person(3, "Müllerin"))
+                .peek(person -> {
+                    if (person.getId() == 1) {
+                        searchIndex.add(person(3, "Müllerin"));
+                        searchIndex.add(person(4, "Mullers"));
+                    }
+                }));
+
+        assertArrayEquals(new int[]{1, 3, 4}, searchIndex.search("Muller", 5));
+        assertArrayEquals(new int[0], searchIndex.search("Schmidt", 5));
+    }
+
+    @Test
+    void overtakenReloadIsDroppedTest() {
+        searchIndex.reload(() -> Stream.of(person(1, "Müller"))
+                .peek(person -> searchIndex.reload(() -> Stream.of(person(2, "Schmidt")))));
+
+        assertArrayEquals(new int[]{2}, searchIndex.search("Schmidt", 5));
+        assertArrayEquals(new int[0], searchIndex.search("Muller", 5));
+    }
+
+    @Test
+    void failedReloadKeepsTheIndexTest() {
+        searchIndex.load(() -> Stream.of(person(1, "Müller")));
+
+        searchIndex.reload(() -> {
+            throw new IllegalStateException("MongoDB is down");
+        });
+        searchIndex.add(person(2, "Müllerin"));
+
+        assertArrayEquals(new int[]{1, 2}, searchIndex.search("Muller", 5));
+    }
+
+    private static Person person(int id, String lastname) {
+        return Person.builder().id(id).lastname(lastname).firstname("Hans").zipcode(67742).city("Lauterecken").color(Color.blau).build();
+    }
+}
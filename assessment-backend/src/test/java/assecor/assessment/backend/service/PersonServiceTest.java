@@ -1,26 +1,58 @@
 package assecor.assessment.backend.service;
 
+import assecor.assessment.backend.config.PersonProperties;
+import assecor.assessment.backend.dto.BatchResponse;
+import assecor.assessment.backend.dto.ColorCount;
+import assecor.assessment.backend.dto.PersonPage;
 import assecor.assessment.backend.dto.PersonRequest;
 import assecor.assessment.backend.dto.PersonResponse;
 import assecor.assessment.backend.exception.EntityNotFoundException;
+import assecor.assessment.backend.exception.InvalidParamException;
 import assecor.assessment.backend.exception.InvalidRequestException;
 import assecor.assessment.backend.model.Color;
 import assecor.assessment.backend.model.Person;
+import assecor.assessment.backend.repository.PersonIdAllocator;
 import assecor.assessment.backend.repository.PersonRepository;
 import assecor.assessment.backend.util.PersonUtil;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,6 +60,27 @@ class PersonServiceTest {
     @Mock
     private PersonRepository personRepository;
 
+    @Mock
+    private PersonIdAllocator idAllocator;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Spy
+    private PersonProperties properties = new PersonProperties();
+
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager(PersonService.PERSONS_BY_ID, PersonService.PERSONS_BY_COLOR);
+
+    @Spy
+    private PersonSearchIndex searchIndex = new PersonSearchIndex(Runnable::run);
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private PersonService personService;
 
@@ -81,24 +134,39 @@ class PersonServiceTest {
 
     @Test
     void createPersonSuccessTest() {
-        when(personRepository.count()).thenReturn(0L);
-        when(personRepository.save(any(Person.class))).thenReturn(person);
-        when(personRepository.existsById(person.getId())).thenReturn(true);
+        when(idAllocator.nextId()).thenReturn(1);
+        when(personRepository.insert(any(Person.class))).thenReturn(person);
 
         String response = personService.createPerson(personRequest);
         assertNotNull(response);
         assertEquals("Person with id 1 added successfully!", response);
+        assertArrayEquals(new int[]{1}, searchIndex.search(person.getLastname(), 5));
     }
 
     @Test
-    void createPersonFailTest() {
-        when(personRepository.count()).thenReturn(0L);
-        when(personRepository.save(any(Person.class))).thenReturn(person);
-        when(personRepository.existsById(person.getId())).thenReturn(false);
+    void createPersonEvictsOnlyAffectedCacheEntriesTest() {
+        cacheManager.getCache(PersonService.PERSONS_BY_ID).put(1, PersonUtil.convertToDto(person));
+        cacheManager.getCache(PersonService.PERSONS_BY_ID).put(2, PersonUtil.convertToDto(person));
+        cacheManager.getCache(PersonService.PERSONS_BY_COLOR).put("blau", List.of());
+        cacheManager.getCache(PersonService.PERSONS_BY_COLOR).put("rot", List.of());
+        when(idAllocator.nextId()).thenReturn(1);
+        when(personRepository.insert(any(Person.class))).thenReturn(person);
 
-        String response = personService.createPerson(personRequest);
-        assertNotNull(response);
-        assertEquals("Adding new person failed!", response);
+        personService.createPerson(personRequest);
+
+        assertNull(cacheManager.getCache(PersonService.PERSONS_BY_ID).get(1));
+        assertNotNull(cacheManager.getCache(PersonService.PERSONS_BY_ID).get(2));
+        assertNull(cacheManager.getCache(PersonService.PERSONS_BY_COLOR).get("blau"));
+        assertNotNull(cacheManager.getCache(PersonService.PERSONS_BY_COLOR).get("rot"));
+    }
+
+    @Test
+    void createPersonWithTakenIdFailsTest() {
+        when(idAllocator.nextId()).thenReturn(1);
+        when(personRepository.insert(any(Person.class))).thenThrow(new DuplicateKeyException("E11000 duplicate key error"));
+
+        assertThrows(DuplicateKeyException.class, () -> personService.createPerson(personRequest));
+        verify(personRepository, never()).existsById(any());
     }
 
     @Test
@@ -114,4 +182,125 @@ class PersonServiceTest {
     void fetchPersonByColorRequestEmptyTest(){
         assertThrows(InvalidRequestException.class, () -> personService.fetchPersonByColor(""));
     }
-}
\ No newline at end of file
+
+    @Test
+    void countPersonsByColorTest() {
+        when(personRepository.countPersonsByColor()).thenReturn(List.of(new ColorCount(Color.blau, 3), new ColorCount(Color.rot, 1)));
+
+        Map<String, Long> counts = personService.countPersonsByColor();
+        assertEquals(Color.values().length, counts.size());
+        assertEquals(3L, counts.get("blau"));
+        assertEquals(1L, counts.get("rot"));
+        assertEquals(0L, counts.get("gelb"));
+    }
+
+    @Test
+    void getPersonPageTest() {
+        Person second = Person.builder().id(2).lastname("Roe").firstname("Jane").zipcode(54321).city("hamburg").color(Color.rot).build();
+        when(personRepository.findByIdGreaterThanOrderByIdAsc(eq(0), eq(Limit.of(2)))).thenReturn(List.of(person, second));
+        when(personRepository.count()).thenReturn(2L);
+
+        PersonPage page = personService.getPersonPage(1, null, true);
+        assertEquals(List.of(PersonUtil.convertToDto(person)), page.getPersons());
+        assertEquals("1", page.getNextCursor());
+        assertEquals(2L, page.getTotal());
+    }
+
+    @Test
+    void getPersonPageLastPageTest() {
+        when(personRepository.findByIdGreaterThanOrderByIdAsc(eq(1), eq(Limit.of(11)))).thenReturn(List.of(person));
+
+        PersonPage page = personService.getPersonPage(10, "1", false);
+        assertEquals(1, page.getPersons().size());
+        assertNull(page.getNextCursor());
+        assertNull(page.getTotal());
+    }
+
+    @Test
+    void streamAllPersonsTest() {
+        AtomicBoolean cursorClosed = new AtomicBoolean();
+        when(personRepository.streamAllBy()).thenReturn(Stream.of(person).onClose(() -> cursorClosed.set(true)));
+
+        try (Stream<PersonResponse> persons = personService.streamAllPersons()) {
+            assertEquals(List.of(PersonUtil.convertToDto(person)), persons.toList());
+        }
+        assertTrue(cursorClosed.get());
+    }
+
+    @Test
+    void fetchPersonsByZipcodeTest() {
+        when(personRepository.findAllByZipcodeRange(18000, 18999)).thenReturn(List.of(PersonUtil.convertToDto(person)));
+
+        assertEquals(1, personService.fetchPersonsByZipcode(null, null, "18").size());
+        assertThrows(InvalidParamException.class, () -> personService.fetchPersonsByZipcode(5L, 1L, null));
+    }
+
+    @Test
+    void filterPersonsTest() {
+        when(mongoTemplate.find(any(Query.class), eq(Person.class))).thenReturn(List.of(person));
+
+        assertEquals(List.of(PersonUtil.convertToDto(person)), personService.filterPersons("blau", "berlin", null, null, "1", null));
+        assertThrows(InvalidParamException.class, () -> personService.filterPersons(null, null, null, null, null, null));
+        assertEquals(1, invocations("filter", "SUCCESS").count());
+    }
+
+    @Test
+    void searchPersonsFindsCreatedPersonsTest() {
+        Person other = Person.builder().id(2).lastname("Müller").firstname("Anna").zipcode(12345).city("berlin").color(Color.rot).build();
+        searchIndex.add(other);
+        searchIndex.add(person);
+        when(personRepository.findAllById(List.of(2, 1))).thenReturn(List.of(person, other));
+
+        assertEquals(List.of(PersonUtil.convertToDto(other), PersonUtil.convertToDto(person)), personService.searchPersons("Muller", 10));
+        assertThrows(InvalidParamException.class, () -> personService.searchPersons(" ", 10));
+        assertThrows(InvalidParamException.class, () -> personService.searchPersons("Muller", 0));
+    }
+
+    @Test
+    void createPersonsInsertsValidItemsInBatchesTest() {
+        properties.getMongo().setBatchSize(2);
+        PersonRequest invalid = PersonRequest.builder().lastname("").firstname("Jane").zipcode(1).city("x").colorID(1).build();
+        when(idAllocator.reserve(2)).thenReturn(1);
+        when(idAllocator.reserve(1)).thenReturn(3);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Person.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(
+                BulkWriteResult.acknowledged(2, 0, 0, 0, List.of(), List.of()),
+                BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()));
+
+        BatchResponse response = personService.createPersons(List.of(personRequest, invalid, personRequest, personRequest).iterator());
+
+        assertEquals(4, response.getReceived());
+        assertEquals(3, response.getInserted());
+        assertEquals(1, response.getFailures().size());
+        assertEquals(1, response.getFailures().get(0).getIndex());
+        verify(bulkOperations, times(2)).execute();
+        assertEquals(2, invocations("bulkInsert", "SUCCESS").count());
+    }
+
+    @Test
+    void createPersonsReportsRejectedItemsTest() {
+        BulkWriteResult result = BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of());
+        BulkWriteError duplicate = new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1);
+        when(idAllocator.reserve(2)).thenReturn(1);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Person.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenThrow(new BulkOperationException("bulk write failed",
+                new MongoBulkWriteException(result, List.of(duplicate), null, new ServerAddress(), Set.of())));
+
+        BatchResponse response = personService.createPersons(List.of(personRequest, personRequest).iterator());
+
+        assertEquals(2, response.getReceived());
+        assertEquals(1, response.getInserted());
+        assertEquals(1, response.getFailures().size());
+        assertEquals(1, response.getFailures().get(0).getIndex());
+        assertEquals("duplicate key", response.getFailures().get(0).getMessage());
+        assertEquals("BulkOperationException", invocations("bulkInsert", "ERROR").getId().getTag("exception"));
+    }
+
+    private Timer invocations(String method, String state) {
+        return meterRegistry.get(PersonService.REPOSITORY_INVOCATIONS)
+                .tags("repository", "MongoTemplate", "method", method, "state", state)
+                .timer();
+    }
+}
@@ -0,0 +1,200 @@
+package assecor.assessment.backend.service;
+
+import assecor.assessment.backend.config.PersonProperties;
+import assecor.assessment.backend.dto.SyncResponse;
+import assecor.assessment.backend.exception.EntityNotFoundException;
+import assecor.assessment.backend.io.FileSystem;
+import assecor.assessment.backend.model.Color;
+import assecor.assessment.backend.model.Person;
+import assecor.assessment.backend.repository.PersonIdAllocator;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PersonSyncServiceTest {
+
+    @Mock
+    private FileSystem fileSystem;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private PersonIdAllocator idAllocator;
+
+    @Mock
+    private PersonSearchIndex searchIndex;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager(PersonService.PERSONS_BY_ID, PersonService.PERSONS_BY_COLOR);
+
+    private PersonSyncService syncService;
+
+    @BeforeEach
+    void setUp() {
+        PersonProperties properties = new PersonProperties();
+        properties.getMongo().setBatchSize(2);
+        syncService = new PersonSyncService(fileSystem, mongoTemplate, idAllocator, searchIndex, cacheManager, properties);
+    }
+
+    @Test
+    void syncWritesOnlyChangedRowsTest() {
+        Person unchanged = person(1, "Müller", "Hans");
+        Person changed = person(2, "Petersen", "Peter");
+        Person added = person(3, "Johnson", "Johnny");
+        Person alsoAdded = person(4, "Millenium", "Milly");
+        when(mongoTemplate.getCollectionName(Person.class)).thenReturn("person");
+        when(fileSystem.streamDataFromCsv(FileService.CSV_FILE)).thenReturn(Stream.of(unchanged, changed, added, alsoAdded));
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("person"))).thenReturn(Stream.of(
+                stored(1, PersonSyncService.hash(unchanged)),
+                stored(2, PersonSyncService.hash(person(2, "Petersen", "Pete"))),
+                stored(5, 42L)));
+        when(idAllocator.reserve(1)).thenReturn(40, 41);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "person")).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(
+                BulkWriteResult.acknowledged(1, 1, 0, 1, List.of(), List.of()),
+                BulkWriteResult.acknowledged(1, 0, 1, 0, List.of(), List.of()));
+        cacheManager.getCache(PersonService.PERSONS_BY_ID).put(2, "cached");
+
+        SyncResponse response = syncService.sync();
+
+        assertEquals(4, response.getCsvRows());
+        assertEquals(1, response.getUnchanged());
+        assertEquals(2, response.getInserted());
+        assertEquals(1, response.getUpdated());
+        assertEquals(1, response.getDeleted());
+        assertEquals(0, response.getConflicts());
+        assertEquals(0, response.getFailed());
+        ArgumentCaptor<Query> storedQuery = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(storedQuery.capture(), eq(Document.class), eq("person"));
+        assertEquals(new Document("$exists", true), storedQuery.getValue().getQueryObject().get("csvId"));
+        assertEquals(new Document("csvId", 1), storedQuery.getValue().getSortObject());
+        ArgumentCaptor<Query> replaced = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Document> replacement = ArgumentCaptor.forClass(Document.class);
+        verify(bulkOperations).replaceOne(replaced.capture(), replacement.capture());
+        assertEquals(2, replaced.getValue().getQueryObject().get("csvId"));
+        assertFalse(replacement.getValue().containsKey("_id"));
+        assertEquals(PersonSyncService.hash(changed), replacement.getValue().get("syncHash"));
+        assertEquals("rot", replacement.getValue().get("color"));
+        ArgumentCaptor<List<Document>> inserted = ArgumentCaptor.captor();
+        verify(bulkOperations, times(2)).insert(inserted.capture());
+        assertEquals(List.of(40, 41), inserted.getAllValues().stream().map(documents -> documents.get(0).get("_id")).toList());
+        assertEquals(List.of(3, 4), inserted.getAllValues().stream().map(documents -> documents.get(0).get("csvId")).toList());
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(bulkOperations).remove(removed.capture());
+        assertEquals(5, removed.getValue().getQueryObject().get("csvId"));
+        verify(bulkOperations, times(2)).execute();
+        verify(searchIndex).reload(any());
+        assertNull(cacheManager.getCache(PersonService.PERSONS_BY_ID).get(2));
+        assertSame(response, syncService.getLastSync());
+    }
+
+    @Test
+    void syncWithoutChangesWritesNothingTest() {
+        Person person = person(1, "Müller", "Hans");
+        when(mongoTemplate.getCollectionName(Person.class)).thenReturn("person");
+        when(fileSystem.streamDataFromCsv(FileService.CSV_FILE)).thenReturn(Stream.of(person));
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("person")))
+                .thenReturn(Stream.of(stored(1, PersonSyncService.hash(person))));
+
+        SyncResponse response = syncService.sync();
+
+        assertEquals(1, response.getUnchanged());
+        assertEquals(0, response.getInserted() + response.getUpdated() + response.getDeleted());
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), any(String.class));
+        verify(idAllocator, never()).reserve(anyInt());
+        verify(searchIndex, never()).reload(any());
+    }
+
+    @Test
+    void syncAdoptsDocumentsKeyedByTheRowIdTest() {
+        when(mongoTemplate.getCollectionName(Person.class)).thenReturn("person");
+        when(fileSystem.streamDataFromCsv(FileService.CSV_FILE)).thenReturn(Stream.of());
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("person"))).thenReturn(Stream.of());
+
+        syncService.sync();
+
+        ArgumentCaptor<Query> legacy = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<AggregationUpdate> adoption = ArgumentCaptor.forClass(AggregationUpdate.class);
+        verify(mongoTemplate).updateMulti(legacy.capture(), adoption.capture(), eq("person"));
+        assertEquals(new Document("syncHash", new Document("$exists", true)).append("csvId", new Document("$exists", false)),
+                legacy.getValue().getQueryObject());
+        assertEquals(new Document("$set", new Document("csvId", "$_id")), adoption.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT).get(0));
+    }
+
+    @Test
+    void rowInsertedByAnotherSyncIsAConflictTest() {
+        Person first = person(1, "Müller", "Hans");
+        Person second = person(2, "Petersen", "Peter");
+        when(mongoTemplate.getCollectionName(Person.class)).thenReturn("person");
+        when(fileSystem.streamDataFromCsv(FileService.CSV_FILE)).thenReturn(Stream.of(first, second));
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("person"))).thenReturn(Stream.of());
+        when(idAllocator.reserve(2)).thenReturn(7);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "person")).thenReturn(bulkOperations);
+        BulkOperationException rejected = mock(BulkOperationException.class);
+        when(rejected.getResult()).thenReturn(BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()));
+        when(rejected.getErrors()).thenReturn(List.of(new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 1)));
+        when(bulkOperations.execute()).thenThrow(rejected);
+
+        SyncResponse response = syncService.sync();
+
+        assertEquals(1, response.getInserted());
+        assertEquals(1, response.getConflicts());
+        assertEquals(0, response.getFailed());
+    }
+
+    @Test
+    void hashDependsOnEveryFieldButTheIdTest() {
+        Person person = person(1, "Müller", "Hans");
+
+        assertEquals(PersonSyncService.hash(person), PersonSyncService.hash(person(7, "Müller", "Hans")));
+        assertNotEquals(PersonSyncService.hash(person), PersonSyncService.hash(person(1, "Müller", "Hanz")));
+        assertNotEquals(PersonSyncService.hash(person), PersonSyncService.hash(person(1, "Müll", "erHans")));
+        assertNotEquals(PersonSyncService.hash(person), PersonSyncService.hash(new Person(1, "Müller", "Hans", 67743, "Lauterecken", Color.rot)));
+        assertNotEquals(PersonSyncService.hash(person), PersonSyncService.hash(new Person(1, "Müller", "Hans", 67742, "Lauterecken", Color.blau)));
+    }
+
+    @Test
+    void getLastSyncBeforeAnySyncTest() {
+        assertThrows(EntityNotFoundException.class, () -> syncService.getLastSync());
+    }
+
+    private static Person person(int id, String lastname, String firstname) {
+        return Person.builder().id(id).lastname(lastname).firstname(firstname).zipcode(67742).city("Lauterecken").color(Color.rot).build();
+    }
+
+    private static Document stored(int csvId, long hash) {
+        return new Document("_id", 100 + csvId).append("csvId", csvId).append("syncHash", hash);
+    }
+}
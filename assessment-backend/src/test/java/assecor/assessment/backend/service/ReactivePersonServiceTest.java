@@ -0,0 +1,132 @@
+package assecor.assessment.backend.service;
+
+import assecor.assessment.backend.dto.ColorCount;
+import assecor.assessment.backend.dto.PersonRequest;
+import assecor.assessment.backend.exception.EntityNotFoundException;
+import assecor.assessment.backend.exception.InvalidRequestException;
+import assecor.assessment.backend.model.Color;
+import assecor.assessment.backend.model.Person;
+import assecor.assessment.backend.repository.ReactivePersonIdAllocator;
+import assecor.assessment.backend.repository.ReactivePersonRepository;
+import assecor.assessment.backend.util.PersonUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactivePersonServiceTest {
+    @Mock
+    private ReactivePersonRepository personRepository;
+
+    @Mock
+    private ReactivePersonIdAllocator idAllocator;
+
+    @Spy
+    private PersonSearchIndex searchIndex = new PersonSearchIndex(Runnable::run);
+
+    @InjectMocks
+    private ReactivePersonService personService;
+
+    private Person person;
+
+    @BeforeEach
+    void setUp() {
+        person = Person.builder()
+                .id(1)
+                .lastname("Hans")
+                .firstname("Müller")
+                .zipcode(12345)
+                .city("berlin")
+                .color(Color.blau)
+                .build();
+    }
+
+    @Test
+    void getPersonByIdNotFoundTest() {
+        when(personRepository.findById(1)).thenReturn(Mono.empty());
+
+        StepVerifier.create(personService.getPersonByID(1))
+                .expectError(EntityNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void getPersonPageTest() {
+        Person second = Person.builder().id(2).lastname("Roe").firstname("Jane").zipcode(54321).city("hamburg").color(Color.rot).build();
+        when(personRepository.findByIdGreaterThanOrderByIdAsc(eq(0), eq(Limit.of(2)))).thenReturn(Flux.just(person, second));
+
+        StepVerifier.create(personService.getPersonPage(1, null, false))
+                .assertNext(page -> {
+                    assertEquals(1, page.getPersons().size());
+                    assertEquals("1", page.getNextCursor());
+                    assertNull(page.getTotal());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void createPersonTest() {
+        when(idAllocator.nextId()).thenReturn(Mono.just(7));
+        when(personRepository.insert(any(Person.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(personService.createPerson(new PersonRequest("Hans", "Müller", 12345, "berlin", 1)))
+                .expectNext("Person with id 7 added successfully!")
+                .verifyComplete();
+        assertArrayEquals(new int[]{7}, searchIndex.search("Muller", 5));
+    }
+
+    @Test
+    void indexNamesLoadsPersonsFromTheReactiveDriverTest() {
+        when(personRepository.findAllOrderedById()).thenReturn(Flux.just(person));
+
+        personService.indexNames();
+
+        assertArrayEquals(new int[]{1}, searchIndex.search("Hans", 5));
+    }
+
+    @Test
+    void createPersonInvalidRequestTest() {
+        StepVerifier.create(personService.createPerson(new PersonRequest("", "Müller", 12345, "berlin", 1)))
+                .expectError(InvalidRequestException.class)
+                .verify();
+    }
+
+    @Test
+    void fetchPersonByColorTest() {
+        when(personRepository.findAllByColor(Color.blau)).thenReturn(Flux.just(PersonUtil.convertToDto(person)));
+
+        StepVerifier.create(personService.fetchPersonByColor("blau"))
+                .expectNext(PersonUtil.convertToDto(person))
+                .verifyComplete();
+        assertThrows(InvalidRequestException.class, () -> personService.fetchPersonByColor("lila"));
+    }
+
+    @Test
+    void countPersonsByColorTest() {
+        when(personRepository.countPersonsByColor()).thenReturn(Flux.just(new ColorCount(Color.rot, 2)));
+
+        StepVerifier.create(personService.countPersonsByColor())
+                .assertNext(counts -> {
+                    assertEquals(Color.values().length, counts.size());
+                    assertEquals(2L, counts.get("rot"));
+                    assertEquals(0L, counts.get("blau"));
+                })
+                .verifyComplete();
+    }
+}
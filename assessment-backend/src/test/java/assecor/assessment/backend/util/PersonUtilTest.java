@@ -2,6 +2,7 @@ package assecor.assessment.backend.util;
 
 import assecor.assessment.backend.dto.PersonRequest;
 import assecor.assessment.backend.dto.PersonResponse;
+import assecor.assessment.backend.exception.InvalidParamException;
 import assecor.assessment.backend.exception.InvalidRequestException;
 import assecor.assessment.backend.model.Color;
 import assecor.assessment.backend.model.Person;
@@ -64,4 +65,42 @@ class PersonUtilTest {
         assertEquals(Color.getColor(1), person.getColor());
     }
 
-}
\ No newline at end of file
+    @Test
+    void testParseZipcodeRange() {
+        assertEquals(new ZipcodeRange(67000, 67999), PersonUtil.parseZipcodeRange(67000L, 67999L, null));
+        assertEquals(new ZipcodeRange(0, 500), PersonUtil.parseZipcodeRange(null, 500L, null));
+        assertEquals(new ZipcodeRange(500, Long.MAX_VALUE), PersonUtil.parseZipcodeRange(500L, null, null));
+        assertEquals(new ZipcodeRange(18000, 18999), PersonUtil.parseZipcodeRange(null, null, "18"));
+        assertEquals(new ZipcodeRange(1067, 1067), PersonUtil.parseZipcodeRange(null, null, "01067"));
+        assertEquals(new ZipcodeRange(0, 9999), PersonUtil.parseZipcodeRange(null, null, "0"));
+    }
+
+    @Test
+    void testParseZipcodeRange_Invalid() {
+        assertThrows(InvalidParamException.class, () -> PersonUtil.parseZipcodeRange(null, null, null));
+        assertThrows(InvalidParamException.class, () -> PersonUtil.parseZipcodeRange(2L, 1L, null));
+        assertThrows(InvalidParamException.class, () -> PersonUtil.parseZipcodeRange(-1L, 1L, null));
+        assertThrows(InvalidParamException.class, () -> PersonUtil.parseZipcodeRange(1L, null, "1"));
+        assertThrows(InvalidParamException.class, () -> PersonUtil.parseZipcodeRange(null, null, "123456"));
+        assertThrows(InvalidParamException.class, () -> PersonUtil.parseZipcodeRange(null, null, "1a"));
+        assertThrows(InvalidParamException.class, () -> PersonUtil.parseZipcodeRange(null, null, ""));
+    }
+
+    @Test
+    void testParseFilter() {
+        assertEquals(new PersonFilter(Color.blau, "Berlin", new ZipcodeRange(18000, 18999), "Mü"),
+                PersonUtil.parseFilter("blau", "Berlin", null, null, "18", "Mü"));
+        assertEquals(new PersonFilter(null, "Berlin", null, null), PersonUtil.parseFilter(null, "Berlin", null, null, null, null));
+        assertEquals(new PersonFilter(null, null, new ZipcodeRange(100, Long.MAX_VALUE), null),
+                PersonUtil.parseFilter(null, null, 100L, null, null, null));
+    }
+
+    @Test
+    void testParseFilter_Invalid() {
+        assertThrows(InvalidParamException.class, () -> PersonUtil.parseFilter(null, null, null, null, null, null));
+        assertThrows(InvalidParamException.class, () -> PersonUtil.parseFilter("lila", null, null, null, null, null));
+        assertThrows(InvalidParamException.class, () -> PersonUtil.parseFilter(null, " ", null, null, null, null));
+        assertThrows(InvalidParamException.class, () -> PersonUtil.parseFilter(null, null, null, null, null, ""));
+        assertThrows(InvalidParamException.class, () -> PersonUtil.parseFilter("blau", null, 1L, null, "1", null));
+    }
+}